@@ -0,0 +1,58 @@
+package com.pos.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Token checks done by the JWT filter on every authenticated request, and issuing a token at login. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256";
+
+    private JwtTokenProvider provider;
+    private String token;
+    private String tampered;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(SECRET, 86_400_000L);
+        token = provider.generateToken("cashier", "CASHIER");
+        tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return provider.parseClaims(token);
+    }
+
+    @Benchmark
+    public boolean rejectTamperedToken() {
+        return provider.validateToken(tampered);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken("cashier", "CASHIER");
+    }
+}
@@ -0,0 +1,147 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.domain.Brand;
+import com.pos.domain.Customer;
+import com.pos.domain.LedgerEntry;
+import com.pos.domain.Product;
+import com.pos.domain.ProductUomPrice;
+import com.pos.domain.SalesInvoice;
+import com.pos.domain.SalesInvoiceItem;
+import com.pos.domain.TransactionType;
+import com.pos.domain.UnitOfMeasure;
+import com.pos.domain.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Detached entity graphs shaped like production data: the nine seeded units of measure, two brands, product
+ * names and prices of the seeded catalogue. Seeded {@link Random} so every run measures the same data.
+ */
+final class Fixtures {
+
+    static final List<String> UOM_NAMES = List.of("Pcs", "Dozen", "Gurus", "Kg", "Ream", "Packet", "Roll", "Dasta", "Rim");
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    private Fixtures() {
+    }
+
+    static List<UnitOfMeasure> uoms() {
+        List<UnitOfMeasure> uoms = new ArrayList<>(UOM_NAMES.size());
+        for (int i = 0; i < UOM_NAMES.size(); i++) {
+            String name = UOM_NAMES.get(i);
+            uoms.add(UnitOfMeasure.builder().uomId(i + 1).name(name).symbol(name.toLowerCase()).build());
+        }
+        return uoms;
+    }
+
+    static List<Product> products(int count, List<UnitOfMeasure> uoms) {
+        Random random = new Random(42);
+        Brand[] brands = {
+                Brand.builder().brandId(1).name("Teetar").build(),
+                Brand.builder().brandId(2).name("Munir").build()
+        };
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal cost = BigDecimal.valueOf(500 + random.nextInt(2000));
+            products.add(Product.builder()
+                    .productId(i + 1)
+                    .code(String.valueOf(200 + i))
+                    .nameEn("Register No " + (100 + i) + " Broad Line")
+                    .nameUr("رجسٹر نمبر " + (100 + i))
+                    .uom(uoms.get(1))
+                    .brand(brands[i % brands.length])
+                    .currentStock(BigDecimal.valueOf(random.nextInt(6000)))
+                    .costPrice(cost)
+                    .sellingPrice(cost.multiply(new BigDecimal("1.10")).setScale(2, RoundingMode.HALF_UP))
+                    .isActive(true)
+                    .build());
+        }
+        return products;
+    }
+
+    /** Per-UOM prices for roughly half the units of each product, as seeded for registers and copies. */
+    static ProductPriceMatrix prices(List<Product> products, List<UnitOfMeasure> uoms) {
+        List<ProductUomPrice> rows = new ArrayList<>();
+        for (Product p : products) {
+            for (int u = 0; u < uoms.size(); u += 2) {
+                rows.add(ProductUomPrice.builder()
+                        .productId(p.getProductId())
+                        .uomId(uoms.get(u).getUomId())
+                        .price(p.getSellingPrice().multiply(BigDecimal.valueOf(u + 1)))
+                        .build());
+            }
+        }
+        return ProductPriceMatrix.of(rows);
+    }
+
+    static SalesInvoice invoice(int lines) {
+        List<UnitOfMeasure> uoms = uoms();
+        List<Product> products = products(Math.max(lines, 1), uoms);
+        User cashier = User.builder().userId(3).username("cashier").fullName("Counter Cashier").build();
+        SalesInvoice inv = SalesInvoice.builder()
+                .salesInvoiceId(1001)
+                .invoiceNumber("INV-20260226-0058")
+                .customer(Customer.builder().customerId(12).name("Al-Noor Book Depot").build())
+                .user(cashier)
+                .invoiceDate(DAY)
+                .invoiceTime(LocalTime.of(14, 35))
+                .transactionType(TransactionType.builder().transactionTypeId(1).typeCode("SALE").build())
+                .isCashCustomer(false)
+                .additionalDiscount(new BigDecimal("150.00"))
+                .additionalExpenses(new BigDecimal("40.00"))
+                .amountReceived(BigDecimal.ZERO)
+                .changeReturned(BigDecimal.ZERO)
+                .invoiceStatus("COMPLETED")
+                .printWithoutHeader(false)
+                .printWithoutBalance(false)
+                .createdAt(Instant.parse("2026-02-26T09:35:00Z"))
+                .build();
+        Random random = new Random(7);
+        for (int i = 0; i < lines; i++) {
+            Product p = products.get(i);
+            BigDecimal qty = BigDecimal.valueOf(1 + random.nextInt(24));
+            BigDecimal price = p.getSellingPrice();
+            inv.getItems().add(SalesInvoiceItem.builder()
+                    .salesInvoiceItemId(5000 + i)
+                    .salesInvoice(inv)
+                    .product(p)
+                    .quantity(qty)
+                    .unitPrice(price)
+                    .lineTotal(qty.multiply(price))
+                    .uom(uoms.get(i % uoms.size()))
+                    .sortOrder(i)
+                    .build());
+        }
+        return inv;
+    }
+
+    /** One account's entries in report order: mostly sales on account, with a payment every fourth entry. */
+    static List<LedgerEntry> ledgerEntries(int count) {
+        Account customer = Account.builder().accountId(40).accountCode("C-0012").accountName("Al-Noor Book Depot").build();
+        Random random = new Random(11);
+        List<LedgerEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal amount = BigDecimal.valueOf(500 + random.nextInt(50_000), 2);
+            boolean payment = i % 4 == 3;
+            entries.add(LedgerEntry.builder()
+                    .ledgerEntryId(90_000 + i)
+                    .voucherNo((payment ? "PAY-" : "VOU-") + (20_000 + i))
+                    .account(customer)
+                    .transactionDate(DAY.minusDays(count - i))
+                    .description(payment ? "Payment received" : "Sale INV-" + (20_000 + i))
+                    .debitAmount(payment ? BigDecimal.ZERO : amount)
+                    .creditAmount(payment ? amount : BigDecimal.ZERO)
+                    .build());
+        }
+        return entries;
+    }
+}
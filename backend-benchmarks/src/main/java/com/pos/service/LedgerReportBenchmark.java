@@ -0,0 +1,45 @@
+package com.pos.service;
+
+import com.pos.domain.LedgerEntry;
+import com.pos.dto.LedgerEntryRowDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Running-balance loop of the ledger report, at the default page size (20), a long page and the maximum (500). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerReportBenchmark {
+
+    @Param({"20", "100", "500"})
+    public int rows;
+
+    private List<LedgerEntry> entries;
+    private final BigDecimal opening = new BigDecimal("125000.00");
+
+    @Setup
+    public void setUp() {
+        entries = Fixtures.ledgerEntries(rows);
+    }
+
+    @Benchmark
+    public List<LedgerEntryRowDto> runningBalance() {
+        return LedgerService.runningBalanceRows(entries, opening);
+    }
+}
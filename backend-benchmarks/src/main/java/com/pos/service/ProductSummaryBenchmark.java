@@ -0,0 +1,53 @@
+package com.pos.service;
+
+import com.pos.domain.Product;
+import com.pos.domain.UnitOfMeasure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product list mapping with per-UOM prices for all nine units, per page of products: the default page (20)
+ * and the maximum (100) the POS product picker loads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSummaryBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private List<UnitOfMeasure> uoms;
+    private List<Product> products;
+    private ProductPriceMatrix prices;
+
+    @Setup
+    public void setUp() {
+        uoms = Fixtures.uoms();
+        products = Fixtures.products(pageSize, uoms);
+        prices = Fixtures.prices(products, uoms);
+    }
+
+    @Benchmark
+    public void toSummaryDtoPage(Blackhole bh) {
+        for (Product p : products) {
+            bh.consume(ProductService.toSummaryDto(p, prices, uoms));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.pos.service;
+
+import com.pos.domain.SalesInvoice;
+import com.pos.dto.InvoiceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice response mapping (every create, lookup and edit returns it) and the net-total recalculation run on
+ * every line edit. 5 lines is a counter sale, 25 a typical wholesale bill, 200 the largest bills seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesInvoiceBenchmark {
+
+    @Param({"5", "25", "200"})
+    public int lines;
+
+    private SalesInvoice invoice;
+
+    @Setup
+    public void setUp() {
+        invoice = Fixtures.invoice(lines);
+    }
+
+    @Benchmark
+    public InvoiceResponse toResponse() {
+        return SalesInvoiceService.toResponse(invoice);
+    }
+
+    @Benchmark
+    public BigDecimal recalcNetTotal() {
+        SalesInvoiceService.recalcNetTotal(invoice);
+        return invoice.getNetTotal();
+    }
+}
@@ -0,0 +1,135 @@
+package com.pos.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.PosApplication;
+import com.pos.loadtest.LoadReport.Operation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout load harness. Starts the backend on a random port against a seeded PostgreSQL (see
+ * {@link LoadDatabase}), then runs {@code loadtest.tills} tills on virtual threads for the warmup and
+ * measurement periods and prints throughput, latency percentiles, deadlocks and lock waits. Full latency
+ * distributions are written to {@code target/loadtest/*.hgrm}.
+ * <p>
+ * Run with {@code mvn test} in this module, e.g. {@code mvn test -Dloadtest.tills=64 -Dloadtest.durationSeconds=120}.
+ */
+@SpringBootTest(
+        classes = PosApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate=WARN",
+                "logging.level.org.springframework.security=WARN",
+                "springdoc.api-docs.enabled=false"
+        })
+class CheckoutLoadTest {
+
+    private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+    private static LoadDatabase database;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws Exception {
+        database = LoadDatabase.start(SETTINGS);
+        database.seed(SETTINGS);
+        registry.add("spring.datasource.url", database::url);
+        registry.add("spring.datasource.username", database::user);
+        registry.add("spring.datasource.password", database::password);
+        registry.add("spring.datasource.hikari.maximum-pool-size", SETTINGS::poolSize);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (database != null) database.close();
+    }
+
+    @Test
+    void checkoutUnderContention() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+        List<LoadDatabase.SeededProduct> products = database.products(SETTINGS.products());
+        List<Integer> customerIds = database.customerIds(SETTINGS.customers());
+        int walkInCustomerId = database.walkInCustomerId();
+        LoadReport report = new LoadReport();
+
+        try (HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            String token = login(http, baseUrl);
+
+            long deadlocksBefore = database.deadlocks();
+            long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(SETTINGS.warmupSeconds());
+            long end = warmupEnd + TimeUnit.SECONDS.toNanos(SETTINGS.durationSeconds());
+            List<Runnable> tills = new ArrayList<>(SETTINGS.tills());
+            for (int i = 0; i < SETTINGS.tills(); i++) {
+                tills.add(new Till(http, objectMapper, baseUrl, token, SETTINGS, products, customerIds, walkInCustomerId, report,
+                        () -> System.nanoTime() < end));
+            }
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                 Connection sampler = database.connect()) {
+                tills.forEach(executor::submit);
+
+                boolean warm = SETTINGS.warmupSeconds() == 0;
+                long measureStart = warm ? System.nanoTime() : 0;
+                while (System.nanoTime() < end) {
+                    if (!warm && System.nanoTime() >= warmupEnd) {
+                        report.reset();
+                        deadlocksBefore = database.deadlocks();
+                        measureStart = System.nanoTime();
+                        warm = true;
+                    }
+                    if (warm) report.lockWaitSample(LoadDatabase.lockWaiters(sampler));
+                    Thread.sleep(100);
+                }
+                executor.shutdown();
+                assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).as("tills stopped").isTrue();
+                report.finish(System.nanoTime() - measureStart, database.deadlocks() - deadlocksBefore);
+            }
+        }
+
+        report.print(System.out, SETTINGS);
+        report.writeHistograms(SETTINGS.outputDir());
+        assertThat(report.succeeded(Operation.INVOICE)).as("successful checkouts").isPositive();
+    }
+
+    private String login(HttpClient http, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(
+                        Map.of("username", System.getProperty("loadtest.username", "admin"),
+                                "password", System.getProperty("loadtest.password", "change_me")))))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login: " + response.body()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("token").asText();
+    }
+}
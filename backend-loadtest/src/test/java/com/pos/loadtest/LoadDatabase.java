@@ -0,0 +1,231 @@
+package com.pos.loadtest;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The database under load: a throwaway PostgreSQL container, or the one at {@code loadtest.jdbcUrl}.
+ * Schema and reference data come from the {@code database/} scripts in the order of database/README.md;
+ * on top of that {@code loadtest.products} products and {@code loadtest.customers} customers (with their
+ * accounts) are generated, all with the {@code LT-} code prefix, plus the walk-in customer {@code LT-WALKIN}
+ * that cash sales are booked to.
+ */
+final class LoadDatabase implements AutoCloseable {
+
+    /** database/README.md "Order of execution", without the Railway all-in-one script. */
+    static final List<String> SCRIPTS = List.of(
+            "01_schema.sql",
+            "02_seed_data.sql",
+            "03_seed_products.sql",
+            "04_migration_pos_upgrades.sql",
+            "07_migration_product_uom_prices.sql",
+            "08_seed_product_uom_prices.sql",
+            "05_seed_customers.sql",
+            "06_seed_demo_users.sql",
+            "07_migration_payment_ledger.sql",
+            "09_migration_invoice_number_counters.sql",
+            "10_migration_record_number_nodes.sql",
+            "11_migration_daily_sales_rollups.sql",
+            "12_migration_ledger_report_index.sql",
+            "13_migration_account_period_balances.sql",
+            "14_migration_account_balance_stripes.sql",
+            "15_migration_pooled_id_sequences.sql",
+            "16_migration_ledger_outbox.sql",
+            "17_migration_keyset_listing_indexes.sql");
+
+    /** Scripts that create objects unconditionally; skipped when pointing at an existing database. */
+    private static final List<String> FRESH_ONLY = List.of("01_schema.sql", "02_seed_data.sql", "03_seed_products.sql");
+
+    /** Customer code of the walk-in customer; a completed sale always needs a customer, cash sales included. */
+    private static final String WALK_IN_CODE = "LT-WALKIN";
+
+    /** Enough stock that tills never run dry; stock-in traffic adds more. */
+    private static final int INITIAL_STOCK = 10_000_000;
+
+    record SeededProduct(int productId, BigDecimal sellingPrice) {
+    }
+
+    private final PostgreSQLContainer<?> container;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private LoadDatabase(PostgreSQLContainer<?> container, String url, String user, String password) {
+        this.container = container;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    static LoadDatabase start(LoadSettings settings) {
+        if (settings.externalDatabase()) {
+            return new LoadDatabase(null, settings.jdbcUrl(), settings.jdbcUser(), settings.jdbcPassword());
+        }
+        PostgreSQLContainer<?> pg = new PostgreSQLContainer<>(settings.postgresImage())
+                .withDatabaseName("pos_db")
+                .withUsername("pos_user")
+                .withPassword("pos_pass")
+                // Report lock waits longer than deadlock_timeout in the container log as well
+                .withCommand("postgres", "-c", "log_lock_waits=on", "-c", "max_connections=200");
+        pg.start();
+        return new LoadDatabase(pg, pg.getJdbcUrl(), pg.getUsername(), pg.getPassword());
+    }
+
+    String url() {
+        return url;
+    }
+
+    String user() {
+        return user;
+    }
+
+    String password() {
+        return password;
+    }
+
+    /** Runs the database/ scripts, then generates the load-test catalogue and customers. */
+    void seed(LoadSettings settings) throws SQLException {
+        try (Connection c = connect()) {
+            boolean fresh = !tableExists(c, "products");
+            for (String script : SCRIPTS) {
+                if (!fresh && FRESH_ONLY.contains(script)) continue;
+                Path file = settings.databaseDir().resolve(script);
+                try (Statement st = c.createStatement()) {
+                    // Whole file in one call: the driver splits statements and understands $$ bodies
+                    st.execute(Files.readString(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read " + file.toAbsolutePath(), e);
+                } catch (SQLException e) {
+                    throw new SQLException("Seeding " + script + " failed: " + e.getMessage(), e);
+                }
+            }
+            generateCatalogue(c, settings);
+        }
+    }
+
+    private static void generateCatalogue(Connection c, LoadSettings settings) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO products (code, name_en, brand_id, category_id, uom_id, cost_price, selling_price, current_stock) " +
+                "SELECT 'LT-' || g, 'Load test product ' || g, " +
+                "(SELECT MIN(brand_id) FROM brands), (SELECT MIN(category_id) FROM categories), " +
+                "(SELECT MIN(uom_id) FROM units_of_measure), 50 + g % 500, 60 + g % 500, ? " +
+                "FROM generate_series(1, ?) g ON CONFLICT (code) DO NOTHING")) {
+            ps.setInt(1, INITIAL_STOCK);
+            ps.setInt(2, settings.products());
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO accounts (account_code, account_name, account_type, current_balance) " +
+                "SELECT 'LT-CUST-' || g, 'Load test customer ' || g, 'Customer', 0 " +
+                "FROM generate_series(1, ?) g ON CONFLICT (account_code) DO NOTHING")) {
+            ps.setInt(1, settings.customers());
+            ps.executeUpdate();
+        }
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate(
+                    "INSERT INTO customers (account_id, customer_code, name, name_english, city) " +
+                    "SELECT a.account_id, 'LT-' || SUBSTRING(a.account_code FROM 9), a.account_name, a.account_name, 'Lahore' " +
+                    "FROM accounts a WHERE a.account_code LIKE 'LT-CUST-%' ON CONFLICT (customer_code) DO NOTHING");
+            st.executeUpdate(
+                    "INSERT INTO accounts (account_code, account_name, account_type, current_balance) " +
+                    "VALUES ('" + WALK_IN_CODE + "', 'Walk-in customer', 'Customer', 0) ON CONFLICT (account_code) DO NOTHING");
+            st.executeUpdate(
+                    "INSERT INTO customers (account_id, customer_code, name, name_english, city) " +
+                    "SELECT a.account_id, a.account_code, a.account_name, a.account_name, 'Lahore' " +
+                    "FROM accounts a WHERE a.account_code = '" + WALK_IN_CODE + "' ON CONFLICT (customer_code) DO NOTHING");
+            st.execute("ANALYZE");
+        }
+    }
+
+    /** The generated products, in code order (LT-1 first); the first {@code loadtest.hotProducts} are the best sellers. */
+    List<SeededProduct> products(int limit) throws SQLException {
+        List<SeededProduct> list = new ArrayList<>(limit);
+        try (Connection c = connect();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT product_id, selling_price FROM products WHERE code LIKE 'LT-%' " +
+                     "ORDER BY CAST(SUBSTRING(code FROM 4) AS INTEGER) LIMIT ?")) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(new SeededProduct(rs.getInt(1), rs.getBigDecimal(2)));
+            }
+        }
+        return list;
+    }
+
+    List<Integer> customerIds(int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>(limit);
+        try (Connection c = connect();
+             PreparedStatement ps = c.prepareStatement(
+                     "SELECT customer_id FROM customers WHERE customer_code LIKE 'LT-%' AND customer_code <> ? " +
+                     "ORDER BY customer_id LIMIT ?")) {
+            ps.setString(1, WALK_IN_CODE);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /** The walk-in customer cash sales are booked to. */
+    int walkInCustomerId() throws SQLException {
+        try (Connection c = connect();
+             PreparedStatement ps = c.prepareStatement("SELECT customer_id FROM customers WHERE customer_code = ?")) {
+            ps.setString(1, WALK_IN_CODE);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Walk-in customer " + WALK_IN_CODE + " is not seeded");
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /** Deadlocks PostgreSQL has detected in this database since its statistics were last reset. */
+    long deadlocks() throws SQLException {
+        try (Connection c = connect();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT deadlocks FROM pg_stat_database WHERE datname = current_database()")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Opens a connection for the lock-wait sampler, which keeps it for the whole run. */
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /** Backends of this database currently waiting on a heavyweight lock (row, tuple, transaction id...). */
+    static int lockWaiters(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT COUNT(*) FROM pg_stat_activity WHERE datname = current_database() AND wait_event_type = 'Lock'")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean tableExists(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            ps.setString(1, "public." + table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (container != null) container.stop();
+    }
+}
@@ -0,0 +1,136 @@
+package com.pos.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts per operation. Latencies go into HdrHistogram recorders (microseconds, up to a
+ * minute), which tills write to without locking. {@link #reset()} drops everything recorded so far, at the
+ * end of warmup.
+ */
+final class LoadReport {
+
+    enum Operation { INVOICE, STOCK_IN, DASHBOARD }
+
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> measured = new EnumMap<>(Operation.class);
+    private final LongAdder transportErrors = new LongAdder();
+    private final Histogram lockWaiters = new Histogram(1_000, 2);
+    private long measuredNanos;
+    private long deadlocks;
+
+    LoadReport() {
+        for (Operation op : Operation.values()) {
+            latencies.put(op, new Recorder(MAX_LATENCY_US, 3));
+            statuses.put(op, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(Operation op, int status, long latencyNanos) {
+        latencies.get(op).recordValue(Math.min(MAX_LATENCY_US, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        statuses.get(op).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void transportError() {
+        transportErrors.increment();
+    }
+
+    /** One sample of how many database backends were waiting on a lock; taken by a single sampler thread. */
+    synchronized void lockWaitSample(int waiters) {
+        lockWaiters.recordValue(Math.min(waiters, 1_000));
+    }
+
+    synchronized void reset() {
+        for (Operation op : Operation.values()) {
+            latencies.get(op).reset();
+            statuses.get(op).clear();
+        }
+        transportErrors.reset();
+        lockWaiters.reset();
+    }
+
+    /** Takes the histograms recorded since the last reset; call once, after the tills have stopped. */
+    synchronized void finish(long measuredNanos, long deadlocks) {
+        this.measuredNanos = measuredNanos;
+        this.deadlocks = deadlocks;
+        for (Operation op : Operation.values()) {
+            measured.put(op, latencies.get(op).getIntervalHistogram());
+        }
+    }
+
+    long succeeded(Operation op) {
+        return statuses.get(op).entrySet().stream()
+                .filter(e -> e.getKey() >= 200 && e.getKey() < 300)
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+    }
+
+    long serverErrors() {
+        return statuses.values().stream()
+                .flatMap(m -> m.entrySet().stream())
+                .filter(e -> e.getKey() >= 500)
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+    }
+
+    long deadlocks() {
+        return deadlocks;
+    }
+
+    synchronized void print(PrintStream out, LoadSettings settings) {
+        double seconds = measuredNanos / 1e9;
+        out.println();
+        out.printf("=== Checkout load test: %d tills, %.0f s measured (after %d s warmup) ===%n",
+                settings.tills(), seconds, settings.warmupSeconds());
+        out.printf("%-10s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "ok/s", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "status codes");
+        for (Operation op : Operation.values()) {
+            Histogram h = measured.get(op);
+            out.printf("%-10s %9.1f %9d %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    op, succeeded(op) / seconds, h.getTotalCount(),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()), statusSummary(op));
+        }
+        out.printf("checkouts/s: %.1f%n", succeeded(Operation.INVOICE) / seconds);
+        out.printf("deadlocks detected by PostgreSQL: %d%n", deadlocks);
+        out.printf("lock waits: %.1f%% of %d samples had a waiter; mean %.2f, max %d backends waiting%n",
+                lockWaiters.getTotalCount() == 0 ? 0.0
+                        : 100.0 * (lockWaiters.getTotalCount() - lockWaiters.getCountAtValue(0)) / lockWaiters.getTotalCount(),
+                lockWaiters.getTotalCount(), lockWaiters.getMean(), lockWaiters.getMaxValue());
+        out.printf("server errors (5xx): %d, transport errors: %d%n", serverErrors(), transportErrors.sum());
+    }
+
+    /** Full percentile distributions (HdrHistogram .hgrm, milliseconds), one file per operation. */
+    synchronized void writeHistograms(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Operation op : Operation.values()) {
+            try (PrintStream ps = new PrintStream(Files.newOutputStream(dir.resolve(op.name().toLowerCase() + ".hgrm")))) {
+                measured.get(op).outputPercentileDistribution(ps, 1000.0);
+            }
+        }
+    }
+
+    private String statusSummary(Operation op) {
+        Map<Integer, Long> sorted = new TreeMap<>();
+        statuses.get(op).forEach((status, count) -> sorted.put(status, count.sum()));
+        return sorted.toString();
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
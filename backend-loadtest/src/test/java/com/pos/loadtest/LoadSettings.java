@@ -0,0 +1,67 @@
+package com.pos.loadtest;
+
+import java.nio.file.Path;
+
+/**
+ * Harness settings, read from {@code -Dloadtest.*} system properties (see README.md for the full list).
+ * Defaults model a busy shop: 32 tills, a 2000-product catalogue with 20 best sellers that half of all
+ * invoice lines hit, and 80/10/10 invoice/stock-in/dashboard traffic.
+ */
+record LoadSettings(
+        int tills,
+        int warmupSeconds,
+        int durationSeconds,
+        int products,
+        int customers,
+        int hotProducts,
+        double hotShare,
+        int maxLines,
+        int invoiceWeight,
+        int stockInWeight,
+        int dashboardWeight,
+        int poolSize,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        String postgresImage,
+        Path databaseDir,
+        Path outputDir
+) {
+
+    static LoadSettings fromSystemProperties() {
+        LoadSettings s = new LoadSettings(
+                intProp("loadtest.tills", 32),
+                intProp("loadtest.warmupSeconds", 10),
+                intProp("loadtest.durationSeconds", 60),
+                intProp("loadtest.products", 2000),
+                intProp("loadtest.customers", 500),
+                intProp("loadtest.hotProducts", 20),
+                Double.parseDouble(System.getProperty("loadtest.hotShare", "0.5")),
+                intProp("loadtest.maxLines", 8),
+                intProp("loadtest.invoiceWeight", 80),
+                intProp("loadtest.stockInWeight", 10),
+                intProp("loadtest.dashboardWeight", 10),
+                intProp("loadtest.poolSize", 10),
+                System.getProperty("loadtest.jdbcUrl", ""),
+                System.getProperty("loadtest.jdbcUser", "pos_user"),
+                System.getProperty("loadtest.jdbcPassword", "pos_pass"),
+                System.getProperty("loadtest.postgresImage", "postgres:15-alpine"),
+                Path.of(System.getProperty("loadtest.databaseDir", "../database")),
+                Path.of(System.getProperty("loadtest.outputDir", "target/loadtest")));
+        if (s.tills < 1 || s.durationSeconds < 1 || s.products < s.hotProducts || s.hotProducts < 1 || s.customers < 1) {
+            throw new IllegalArgumentException("Invalid load test settings: " + s);
+        }
+        if (s.invoiceWeight + s.stockInWeight + s.dashboardWeight <= 0) {
+            throw new IllegalArgumentException("At least one traffic weight must be positive");
+        }
+        return s;
+    }
+
+    boolean externalDatabase() {
+        return !jdbcUrl.isBlank();
+    }
+
+    private static int intProp(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+}
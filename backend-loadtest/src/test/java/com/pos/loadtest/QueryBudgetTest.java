@@ -0,0 +1,175 @@
+package com.pos.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.PosApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per controller method, against the same seeded database as the load test. List and detail
+ * endpoints must run the same number of statements whatever the number of rows they return (no N+1), and a
+ * checkout must stay within {@code sql.statement-budget}, the budget production warns about. Also checks
+ * that a streamed export still completes in its async dispatch.
+ * <p>
+ * Run on its own with {@code mvn test -Dtest=QueryBudgetTest}.
+ */
+@SpringBootTest(
+        classes = PosApplication.class,
+        properties = {
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate=WARN",
+                "logging.level.org.springframework.security=WARN",
+                "springdoc.api-docs.enabled=false",
+                // Post ledger vouchers inside the checkout, so ledger entries exist when the test reads them
+                "ledger.outbox.enabled=false"
+        })
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+    private static final int INVOICES = 60;
+    private static LoadDatabase database;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${sql.statement-budget}")
+    private int budget;
+
+    private StatementCounts sql;
+    private List<LoadDatabase.SeededProduct> products;
+    private List<Integer> customerIds;
+    private int oneLineInvoiceId;
+    private int eightLineInvoiceId;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws Exception {
+        database = LoadDatabase.start(SETTINGS);
+        database.seed(SETTINGS);
+        registry.add("spring.datasource.url", database::url);
+        registry.add("spring.datasource.username", database::user);
+        registry.add("spring.datasource.password", database::password);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (database != null) database.close();
+    }
+
+    @BeforeAll
+    void invoices() throws Exception {
+        String login = mvc.perform(MockMvcRequestBuilders.post("/v1/auth/login")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsBytes(Map.of(
+                                "username", System.getProperty("loadtest.username", "admin"),
+                                "password", System.getProperty("loadtest.password", "change_me")))))
+                .andReturn().getResponse().getContentAsString();
+        sql = new StatementCounts(mvc, objectMapper, objectMapper.readTree(login).get("token").asText());
+        products = database.products(8);
+        customerIds = database.customerIds(INVOICES);
+
+        // One checkout per customer, 1..8 lines, so pages hold different customers and products
+        for (int i = 0; i < INVOICES; i++) {
+            int lines = 1 + i % 8;
+            int id = objectMapper.readTree(sql.send(sql.post("/v1/invoices", invoice(customerIds.get(i), lines))))
+                    .get("salesInvoiceId").asInt();
+            if (lines == 1) oneLineInvoiceId = id;
+            if (lines == 8) eightLineInvoiceId = id;
+        }
+    }
+
+    @Test
+    void productListing() throws Exception {
+        sql.assertNoFanOut(sql.get("/v1/products?size=5"), sql.get("/v1/products?size=50"));
+    }
+
+    @Test
+    void invoiceListing() throws Exception {
+        sql.assertNoFanOut(sql.get("/v1/invoices?size=5"), sql.get("/v1/invoices?size=50"));
+        sql.assertNoFanOut(sql.get("/v1/invoices/scroll?size=5"), sql.get("/v1/invoices/scroll?size=50"));
+    }
+
+    @Test
+    void invoiceById() throws Exception {
+        sql.assertNoFanOut(sql.get("/v1/invoices/{id}", oneLineInvoiceId), sql.get("/v1/invoices/{id}", eightLineInvoiceId));
+    }
+
+    @Test
+    void stockMovements() throws Exception {
+        sql.assertNoFanOut(sql.get("/v1/stock/movements?size=5"), sql.get("/v1/stock/movements?size=50"));
+        sql.assertNoFanOut(sql.get("/v1/stock/movements/scroll?size=5"), sql.get("/v1/stock/movements/scroll?size=50"));
+    }
+
+    @Test
+    void ledgerEntries() throws Exception {
+        sql.assertNoFanOut(sql.get("/v1/ledger/entries?size=5"), sql.get("/v1/ledger/entries?size=50"));
+        sql.assertNoFanOut(sql.get("/v1/ledger/entries/scroll?size=5"), sql.get("/v1/ledger/entries/scroll?size=50"));
+    }
+
+    @Test
+    void checkoutWithinBudget() throws Exception {
+        // Account customer paying in full: the sale and the payment voucher are both posted
+        sql.assertAtMost(budget, sql.post("/v1/invoices", invoice(customerIds.get(0), 8)));
+    }
+
+    @Test
+    void exportCompletesInAsyncDispatch() throws Exception {
+        // The body is written in an ASYNC dispatch, which has no Authorization header of its own
+        MvcResult started = mvc.perform(sql.get("/v1/invoices/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult finished = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(finished.getResponse().getContentAsString()).startsWith("salesInvoiceId,invoiceNumber,");
+    }
+
+    private Map<String, Object> invoice(int customerId, int lines) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (LoadDatabase.SeededProduct p : products.subList(0, lines)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", p.productId());
+            item.put("quantity", BigDecimal.ONE);
+            item.put("unitPrice", p.sellingPrice());
+            items.add(item);
+            total = total.add(p.sellingPrice());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("invoiceDate", LocalDate.now());
+        body.put("transactionTypeCode", "SALE");
+        body.put("isCashCustomer", false);
+        body.put("customerId", customerId);
+        body.put("amountReceived", total);
+        body.put("items", items);
+        return body;
+    }
+}
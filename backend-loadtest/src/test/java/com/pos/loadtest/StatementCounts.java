@@ -0,0 +1,83 @@
+package com.pos.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.config.QueryCounter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements a controller method runs, by sending the request through {@link MockMvc} (same
+ * thread, so {@link QueryCounter} sees every Hibernate statement). Each request is sent once unmeasured first,
+ * so warm caches (principal, reference data, dashboard results) don't make the first count look worse.
+ */
+final class StatementCounts {
+
+    private final MockMvc mvc;
+    private final ObjectMapper json;
+    private final String token;
+
+    StatementCounts(MockMvc mvc, ObjectMapper json, String token) {
+        this.mvc = mvc;
+        this.json = json;
+        this.token = token;
+    }
+
+    MockHttpServletRequestBuilder get(String uri, Object... vars) {
+        return MockMvcRequestBuilders.get(uri, vars).header("Authorization", "Bearer " + token);
+    }
+
+    MockHttpServletRequestBuilder post(String uri, Object body) throws Exception {
+        return MockMvcRequestBuilders.post(uri)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json.writeValueAsBytes(body));
+    }
+
+    /** Sends the request (expecting 2xx) and returns the response body. */
+    String send(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        return result.getResponse().getContentAsString();
+    }
+
+    /** Statements run by the request, measured on its second run. */
+    int count(MockHttpServletRequestBuilder request) throws Exception {
+        send(request);
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            send(request);
+            return scope.count();
+        }
+    }
+
+    /** The request runs at most {@code budget} statements. */
+    void assertAtMost(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        int statements = count(request);
+        assertThat(statements)
+                .as("SQL statements for %s", describe(request))
+                .isLessThanOrEqualTo(budget);
+    }
+
+    /**
+     * Both requests run the same number of statements: the small and large variants differ only in how many
+     * rows they return (page size, invoice lines), so any difference is per-row lazy loading.
+     */
+    void assertNoFanOut(MockHttpServletRequestBuilder small, MockHttpServletRequestBuilder large) throws Exception {
+        int few = count(small);
+        int many = count(large);
+        assertThat(many)
+                .as("SQL statements for %s (%d) vs %s (%d)", describe(large), many, describe(small), few)
+                .isEqualTo(few);
+    }
+
+    private static String describe(MockHttpServletRequestBuilder request) {
+        MockHttpServletRequest r = request.buildRequest(new MockServletContext());
+        return r.getMethod() + " " + r.getRequestURI() + (r.getQueryString() != null ? "?" + r.getQueryString() : "");
+    }
+}
@@ -0,0 +1,162 @@
+package com.pos.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.loadtest.LoadDatabase.SeededProduct;
+import com.pos.loadtest.LoadReport.Operation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One till: sends invoice, stock-in and dashboard requests back to back, in the configured mix, until told to
+ * stop. Invoice lines pick a best seller with probability {@code loadtest.hotShare}, so tills contend on the
+ * same product rows the way a real shop does.
+ */
+final class Till implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http;
+    private final ObjectMapper json;
+    private final String baseUrl;
+    private final String token;
+    private final LoadSettings settings;
+    private final List<SeededProduct> products;
+    private final List<Integer> customerIds;
+    private final int walkInCustomerId;
+    private final LoadReport report;
+    private final BooleanSupplier running;
+
+    Till(HttpClient http, ObjectMapper json, String baseUrl, String token, LoadSettings settings,
+         List<SeededProduct> products, List<Integer> customerIds, int walkInCustomerId, LoadReport report,
+         BooleanSupplier running) {
+        this.http = http;
+        this.json = json;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.settings = settings;
+        this.products = products;
+        this.customerIds = customerIds;
+        this.walkInCustomerId = walkInCustomerId;
+        this.report = report;
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int total = settings.invoiceWeight() + settings.stockInWeight() + settings.dashboardWeight();
+        while (running.getAsBoolean()) {
+            int pick = random.nextInt(total);
+            try {
+                if (pick < settings.invoiceWeight()) {
+                    send(Operation.INVOICE, post("/v1/invoices", invoice(random)));
+                } else if (pick < settings.invoiceWeight() + settings.stockInWeight()) {
+                    send(Operation.STOCK_IN, post("/v1/stock/in", stockIn(random)));
+                } else {
+                    send(Operation.DASHBOARD, get("/v1/dashboard/summary?limit=10"));
+                }
+            } catch (IOException e) {
+                report.transportError();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(Operation op, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        report.record(op, response.statusCode(), System.nanoTime() - start);
+    }
+
+    private Map<String, Object> invoice(ThreadLocalRandom random) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (SeededProduct p : pickProducts(random)) {
+            BigDecimal qty = BigDecimal.valueOf(1 + random.nextInt(12));
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", p.productId());
+            item.put("quantity", qty);
+            item.put("unitPrice", p.sellingPrice());
+            items.add(item);
+            total = total.add(qty.multiply(p.sellingPrice()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("invoiceDate", LocalDate.now());
+        body.put("transactionTypeCode", "SALE");
+        boolean cash = random.nextInt(4) == 0;
+        body.put("isCashCustomer", cash);
+        // As at the till: cash sales go to the walk-in customer, since a completed sale needs a customer
+        body.put("customerId", cash ? walkInCustomerId : customerIds.get(random.nextInt(customerIds.size())));
+        // Cash sales are paid in full; account customers pay part, so both sale and payment vouchers are posted
+        body.put("amountReceived", cash ? total : total.divide(BigDecimal.valueOf(1 + random.nextInt(3)), 2, RoundingMode.DOWN));
+        body.put("items", items);
+        return body;
+    }
+
+    private Map<String, Object> stockIn(ThreadLocalRandom random) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (SeededProduct p : pickProducts(random)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", p.productId());
+            item.put("quantity", BigDecimal.valueOf(50 + random.nextInt(500)));
+            item.put("priceAtTransaction", p.sellingPrice());
+            items.add(item);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transactionDate", LocalDate.now());
+        body.put("description", "Load test delivery");
+        body.put("items", items);
+        return body;
+    }
+
+    /** 1..maxLines distinct products; each is a best seller with probability hotShare. */
+    private List<SeededProduct> pickProducts(ThreadLocalRandom random) {
+        int lines = 1 + random.nextInt(settings.maxLines());
+        Set<Integer> seen = new HashSet<>();
+        List<SeededProduct> picked = new ArrayList<>(lines);
+        for (int i = 0; i < lines * 3 && picked.size() < lines; i++) {
+            int index = random.nextDouble() < settings.hotShare()
+                    ? random.nextInt(settings.hotProducts())
+                    : random.nextInt(products.size());
+            if (seen.add(index)) picked.add(products.get(index));
+        }
+        return picked;
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
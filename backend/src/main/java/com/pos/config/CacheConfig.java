@@ -0,0 +1,22 @@
+package com.pos.config;
+
+import com.pos.service.DashboardResultCache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(DashboardResultCache dashboardResultCache) {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(dashboardResultCache));
+        return manager;
+    }
+}
@@ -0,0 +1,36 @@
+package com.pos.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Matches requests that arrive on the actuator's own port ({@code management.server.port}). That port is meant
+ * to be reachable only from inside the deployment (e.g. by Prometheus), so {@link SecurityConfig} lets its
+ * requests through without a user JWT, which expires and cannot sit in a static scrape config.
+ * <p>
+ * The port is taken from the management server once it has started, so a random port in tests works too.
+ * Matches nothing while the actuator shares the application port.
+ */
+@Component
+public class ManagementPortRequestMatcher implements RequestMatcher, ApplicationListener<WebServerInitializedEvent> {
+
+    private static final String MANAGEMENT_NAMESPACE = "management";
+
+    private volatile int managementPort = -1;
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (MANAGEMENT_NAMESPACE.equals(event.getApplicationContext().getServerNamespace())) {
+            managementPort = event.getWebServer().getPort();
+        }
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        int port = managementPort;
+        return port > 0 && request.getLocalPort() == port;
+    }
+}
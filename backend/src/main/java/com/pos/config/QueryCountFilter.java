@@ -0,0 +1,75 @@
+package com.pos.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each request runs ({@link QueryCounter}) and records them per endpoint as
+ * {@code pos.http.sql.statements}, tagged method and uri (the mapping pattern, e.g. {@code /v1/invoices/{id}}).
+ * A request over {@code sql.statement-budget} statements is logged at WARN and counted in
+ * {@code pos.http.sql.budget.exceeded}: that is nearly always lazy loading inside a loop.
+ * <p>
+ * Runs ahead of the security filters, so the principal lookup on a cold cache is included.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final int budget;
+
+    public QueryCountFilter(MeterRegistry registry, @Value("${sql.statement-budget:40}") int budget) {
+        this.registry = registry;
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                record(request, scope.count());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("pos.http.sql.statements")
+                .description("SQL statements per request")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(statements);
+        if (statements > budget) {
+            Counter.builder("pos.http.sql.budget.exceeded")
+                    .description("Requests that ran more SQL statements than sql.statement-budget")
+                    .tags("method", method, "uri", uri)
+                    .register(registry)
+                    .increment();
+            log.warn("{} {} ran {} SQL statements (budget {})", method, uri, statements, budget);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pos.config;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. {@link #open()} starts a scope, which
+ * counts until it is closed; scopes nest, and a statement counts towards every open scope. Statements run
+ * through {@code JdbcTemplate} or on other threads (streamed exports, outbox workers, and the dashboard summary's
+ * queries, which run on virtual threads) are not seen.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** Called by {@link SqlStatementInspector} for every statement. */
+    static void increment() {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) {
+            s.count++;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
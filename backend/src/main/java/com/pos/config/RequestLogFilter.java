@@ -0,0 +1,77 @@
+package com.pos.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One summary line per request on the {@code com.pos.request} logger, as key=value pairs:
+ * {@code method=POST uri=/v1/invoices status=200 ms=41 sql=17}.
+ * <p>
+ * Server errors and requests slower than {@code request-log.slow-ms} are always logged (WARN). Otherwise the
+ * logger level decides: at DEBUG every request is logged, at INFO one request in {@code request-log.sample-every}
+ * (the line then carries {@code sampled=1/N}), at WARN none. Actuator requests are not logged.
+ */
+@Slf4j(topic = "com.pos.request")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    private final long slowMs;
+    private final int sampleEvery;
+
+    public RequestLogFilter(@Value("${request-log.slow-ms:1000}") long slowMs,
+                            @Value("${request-log.sample-every:100}") int sampleEvery) {
+        this.slowMs = slowMs;
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                long ms = (System.nanoTime() - start) / 1_000_000;
+                int status = response.getStatus();
+                if (status >= 500 || ms >= slowMs) {
+                    log.warn("method={} uri={} status={} ms={} sql={}{}", request.getMethod(), uri(request), status, ms,
+                            scope.count(), ms >= slowMs ? " slow=true" : "");
+                } else if (log.isDebugEnabled()) {
+                    log.debug("method={} uri={} status={} ms={} sql={}", request.getMethod(), uri(request), status, ms, scope.count());
+                } else if (log.isInfoEnabled() && ThreadLocalRandom.current().nextInt(sampleEvery) == 0) {
+                    log.info("method={} uri={} status={} ms={} sql={} sampled=1/{}", request.getMethod(), uri(request), status, ms,
+                            scope.count(), sampleEvery);
+                }
+            }
+        }
+    }
+
+    /** The mapping pattern (e.g. /v1/invoices/{id}), so lines group by endpoint; the raw path if none matched. */
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
@@ -1,6 +1,7 @@
 package com.pos.config;
 
 import com.pos.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Arrays;
@@ -29,6 +30,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ManagementPortRequestMatcher managementPort;
     @Value("${cors.allowed-origins:*}")
     private String allowedOrigins;
 
@@ -40,9 +42,15 @@ public class SecurityConfig {
             .sessionManagement(session ->
                     session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                    // Streamed exports finish in an ASYNC dispatch, errors in an ERROR dispatch; both carry no JWT and
+                    // belong to a request that was already authorized
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                     .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                     .requestMatchers("/v1/auth/login", "/v1/auth/refresh").permitAll()
-                    .requestMatchers("/actuator/**").permitAll()
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                    // Prometheus scrapes the internal management port; on the public port the actuator is ADMIN only
+                    .requestMatchers(managementPort).permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                     .requestMatchers("/v1/**").authenticated()
                     .anyRequest().authenticated()
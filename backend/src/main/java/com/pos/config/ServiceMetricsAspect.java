@@ -0,0 +1,113 @@
+package com.pos.config;
+
+import com.pos.dto.BatchInvoiceResponse;
+import com.pos.dto.InvoiceResponse;
+import com.pos.dto.StockMovementResponse;
+import com.pos.exception.BadRequestException;
+import com.pos.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the invoice, ledger, stock and dashboard services ({@code pos.service.calls},
+ * tagged service, method, outcome, exception, branch and type) and counts what the writes produced
+ * ({@code pos.invoices.created}, {@code pos.invoices.rejected}, {@code pos.invoice.lines},
+ * {@code pos.stock.movement.lines}).
+ * <p>
+ * Runs outside the transaction interceptor, so write timings include the commit. Branch and transaction type
+ * are taken from the returned invoice or stock movement, i.e. only from values the service has already
+ * validated, which keeps the tag values bounded; reads, batches and failed calls are tagged {@code none}.
+ * Repository query timings ({@code spring.data.repository.invocations}) and the Hikari pool gauges are
+ * recorded by Spring Boot itself.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    static final String CALLS = "pos.service.calls";
+    static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * com.pos.service.SalesInvoiceService.*(..))"
+            + " || execution(public * com.pos.service.LedgerService.*(..))"
+            + " || execution(public * com.pos.service.StockTransactionService.*(..))"
+            + " || execution(public * com.pos.service.DashboardService.*(..))")
+    public Object time(ProceedingJoinPoint pjp) throws Throwable {
+        String service = pjp.getSignature().getDeclaringType().getSimpleName();
+        String method = pjp.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = pjp.proceed();
+            Tags tags = Tags.of("service", service, "method", method).and(branchAndType(result));
+            record(tags.and("outcome", "success", "exception", NONE), start);
+            countResult(method, result);
+            return result;
+        } catch (Throwable e) {
+            String outcome = e instanceof BadRequestException || e instanceof ResourceNotFoundException ? "rejected" : "error";
+            record(Tags.of("service", service, "method", method, "branch", NONE, "type", NONE,
+                    "outcome", outcome, "exception", e.getClass().getSimpleName()), start);
+            throw e;
+        }
+    }
+
+    private void record(Tags tags, long start) {
+        Timer.builder(CALLS)
+                .description("Service method calls")
+                .tags(tags)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void countResult(String method, Object result) {
+        if (result instanceof InvoiceResponse invoice && method.equals("createInvoice")) {
+            Tags tags = branchAndType(invoice);
+            counter("pos.invoices.created", "Invoices saved", tags).increment();
+            counter("pos.invoice.lines", "Invoice lines saved", tags).increment(sizeOf(invoice.getItems()));
+        } else if (result instanceof BatchInvoiceResponse batch) {
+            Tags tags = Tags.of("branch", NONE, "type", "batch");
+            counter("pos.invoices.created", "Invoices saved", tags).increment(batch.getSucceeded());
+            counter("pos.invoices.rejected", "Invoices rejected within a batch", tags).increment(batch.getFailed());
+        } else if (result instanceof StockMovementResponse movement) {
+            counter("pos.stock.movement.lines", "Stock movement lines saved", branchAndType(movement))
+                    .increment(sizeOf(movement.getItems()));
+        }
+    }
+
+    private Counter counter(String name, String description, Tags tags) {
+        return Counter.builder(name).description(description).tags(tags).register(registry);
+    }
+
+    static Tags branchAndType(Object result) {
+        if (result instanceof InvoiceResponse invoice) {
+            return tags(invoice.getBranchId(), invoice.getTransactionTypeCode());
+        }
+        if (result instanceof StockMovementResponse movement) {
+            return tags(movement.getBranchId(), movement.getTransactionTypeCode());
+        }
+        return Tags.of("branch", NONE, "type", NONE);
+    }
+
+    private static Tags tags(Integer branchId, String typeCode) {
+        return Tags.of("branch", branchId != null ? branchId.toString() : NONE,
+                "type", typeCode != null ? typeCode : NONE);
+    }
+
+    private static int sizeOf(Collection<?> items) {
+        return items != null ? items.size() : 0;
+    }
+}
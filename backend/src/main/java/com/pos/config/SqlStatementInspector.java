@@ -0,0 +1,13 @@
+package com.pos.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Feeds {@link QueryCounter}; the SQL itself is passed through unchanged. */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.increment();
+        return sql;
+    }
+}
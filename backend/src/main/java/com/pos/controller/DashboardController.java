@@ -2,6 +2,7 @@ package com.pos.controller;
 
 import com.pos.dto.dashboard.*;
 import com.pos.service.DashboardService;
+import com.pos.service.DashboardSummaryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,19 @@ import java.util.List;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardSummaryService dashboardSummaryService;
+
+    /** All KPIs below in one call; today-sales uses {@code today}, everything else the from/to range. */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<DashboardSummaryDto> summary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate today,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(dashboardSummaryService.getSummary(today, fromDate, toDate, Math.max(1, Math.min(limit, 100))));
+    }
 
     @GetMapping("/today-sales")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -52,7 +66,7 @@ public class DashboardController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(defaultValue = "10") int limit
     ) {
-        return ResponseEntity.ok(dashboardService.getBestSellingProducts(fromDate, toDate, Math.min(limit, 100)));
+        return ResponseEntity.ok(dashboardService.getBestSellingProducts(fromDate, toDate, Math.max(1, Math.min(limit, 100))));
     }
 
     @GetMapping("/top-customers")
@@ -62,7 +76,7 @@ public class DashboardController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(defaultValue = "10") int limit
     ) {
-        return ResponseEntity.ok(dashboardService.getTopCustomers(fromDate, toDate, Math.min(limit, 100)));
+        return ResponseEntity.ok(dashboardService.getTopCustomers(fromDate, toDate, Math.max(1, Math.min(limit, 100))));
     }
 
     @GetMapping("/sales-trend")
@@ -0,0 +1,51 @@
+package com.pos.controller;
+
+import com.pos.service.ExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/** Builds streamed export downloads: gzip-compressed when the client accepts it, sent as an attachment. */
+final class ExportResponses {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private ExportResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> stream(String fileName, ExportService.Format format, String acceptEncoding, Body body) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody stream = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, BUFFER_SIZE);
+                body.writeTo(zipped);
+                zipped.finish();
+            } else {
+                BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+                body.writeTo(buffered);
+                buffered.flush();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName + "." + format.extension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(stream);
+    }
+}
@@ -1,22 +1,35 @@
 package com.pos.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pos.dto.CursorPage;
 import com.pos.dto.LedgerEntryDto;
+import com.pos.dto.LedgerEntryRowDto;
 import com.pos.dto.LedgerReportDto;
 import com.pos.dto.ManualLedgerEntryRequest;
 import com.pos.dto.TrialBalanceDto;
+import com.pos.service.ExportService;
 import com.pos.service.LedgerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/v1/ledger")
@@ -24,6 +37,8 @@ import java.time.LocalDate;
 public class LedgerController {
 
     private final LedgerService ledgerService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/manual-entry")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -61,6 +76,34 @@ public class LedgerController {
         return ResponseEntity.ok(page);
     }
 
+    /** Keyset-paginated entries in posting order, without totals. Pass the previous response's {@code nextCursor} as {@code cursor}. */
+    @GetMapping("/entries/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
+    public ResponseEntity<CursorPage<LedgerEntryDto>> scrollEntries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(ledgerService.scrollEntries(fromDate, toDate, accountId, cursor, size));
+    }
+
+    /** Streams every ledger entry in the date range in posting order. Params as for the list endpoint plus {@code format} (csv | ndjson); gzip when accepted. */
+    @GetMapping("/entries/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer accountId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ExportService.Format fmt = ExportService.Format.parse(format);
+        return ExportResponses.stream("ledger-entries", fmt, acceptEncoding,
+                out -> exportService.exportLedgerEntries(fromDate, toDate, accountId, fmt, out));
+    }
+
     @GetMapping("/trial-balance")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<TrialBalanceDto> trialBalance(
@@ -78,24 +121,51 @@ public class LedgerController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor
     ) {
         LocalDate from = fromDate != null ? fromDate : LocalDate.now();
         LocalDate to = toDate != null ? toDate : LocalDate.now();
-        LedgerReportDto dto = ledgerService.getLedgerReport(accountId, from, to, page, size);
+        LedgerReportDto dto = ledgerService.getLedgerReport(accountId, from, to, page, Math.min(size, 500), cursor);
         return ResponseEntity.ok(dto);
     }
 
+    /** Full report for print: same JSON as /report with every entry, streamed as rows are read. */
     @GetMapping("/report/print")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
-    public ResponseEntity<LedgerReportDto> reportPrint(
+    public ResponseEntity<StreamingResponseBody> reportPrint(
             @RequestParam Integer accountId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate
     ) {
         LocalDate from = fromDate != null ? fromDate : LocalDate.now();
         LocalDate to = toDate != null ? toDate : LocalDate.now();
-        LedgerReportDto dto = ledgerService.getLedgerReport(accountId, from, to, 0, Integer.MAX_VALUE);
-        return ResponseEntity.ok(dto);
+        ledgerService.requireReportAccount(accountId);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+                ledgerService.streamLedgerReport(accountId, from, to, new LedgerService.LedgerReportWriter() {
+                    @Override
+                    public void begin(LedgerReportDto summary) throws IOException {
+                        ObjectNode head = objectMapper.valueToTree(summary);
+                        head.remove("entries");
+                        gen.writeStartObject();
+                        for (Iterator<Map.Entry<String, JsonNode>> it = head.fields(); it.hasNext(); ) {
+                            Map.Entry<String, JsonNode> field = it.next();
+                            gen.writeFieldName(field.getKey());
+                            gen.writeTree(field.getValue());
+                        }
+                        gen.writeArrayFieldStart("entries");
+                    }
+
+                    @Override
+                    public void row(LedgerEntryRowDto row) throws IOException {
+                        gen.writeObject(row);
+                    }
+                });
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
-}
\ No newline at end of file
+}
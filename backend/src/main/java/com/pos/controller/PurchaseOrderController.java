@@ -2,6 +2,7 @@ package com.pos.controller;
 
 import com.pos.dto.CreatePurchaseOrderRequest;
 import com.pos.dto.PurchaseOrderResponse;
+import com.pos.service.IdempotencyStore;
 import com.pos.service.PurchaseOrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,15 +23,18 @@ import java.time.LocalDate;
 public class PurchaseOrderController {
 
     private final PurchaseOrderService purchaseOrderService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<PurchaseOrderResponse> create(
             @Valid @RequestBody CreatePurchaseOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
         String username = currentUser != null ? currentUser.getUsername() : null;
-        PurchaseOrderResponse created = purchaseOrderService.create(request, username);
+        PurchaseOrderResponse created = idempotencyStore.execute("purchases.create", username, idempotencyKey, request,
+                () -> purchaseOrderService.create(request, username));
         return ResponseEntity.ok(created);
     }
 
@@ -38,10 +42,12 @@ public class PurchaseOrderController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<PurchaseOrderResponse> receive(
             @PathVariable Integer id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
         String username = currentUser != null ? currentUser.getUsername() : null;
-        PurchaseOrderResponse received = purchaseOrderService.receive(id, username);
+        PurchaseOrderResponse received = idempotencyStore.execute("purchases.receive", username, idempotencyKey, id,
+                () -> purchaseOrderService.receive(id, username));
         return ResponseEntity.ok(received);
     }
 
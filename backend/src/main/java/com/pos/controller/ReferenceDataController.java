@@ -0,0 +1,25 @@
+package com.pos.controller;
+
+import com.pos.service.ReferenceDataCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/reference-data")
+@RequiredArgsConstructor
+public class ReferenceDataController {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    /** Reload cached transaction types, UOMs, delivery modes, branches and account-by-type after editing them in the database. */
+    @PostMapping("/refresh")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Void> refresh() {
+        referenceDataCache.refresh();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.pos.controller;
 
 import com.pos.dto.*;
+import com.pos.service.ExportService;
+import com.pos.service.IdempotencyStore;
 import com.pos.service.SalesInvoiceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -8,11 +10,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -22,21 +26,57 @@ import java.time.LocalDate;
 public class SalesInvoiceController {
 
     private final SalesInvoiceService salesInvoiceService;
+    private final IdempotencyStore idempotencyStore;
+    private final ExportService exportService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
     public ResponseEntity<InvoiceResponse> create(
             @Valid @RequestBody CreateInvoiceRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
         String username = currentUser != null ? currentUser.getUsername() : null;
         if (username == null) {
             return ResponseEntity.status(401).build();
         }
-        InvoiceResponse created = salesInvoiceService.createInvoice(request, username);
+        InvoiceResponse created = idempotencyStore.execute("invoices.create", username, idempotencyKey, request,
+                () -> salesInvoiceService.createInvoice(request, username));
         return ResponseEntity.ok(created);
     }
 
+    /** Offline sync: creates many invoices in one transaction and reports each one's outcome. */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
+    public ResponseEntity<BatchInvoiceResponse> createBatch(
+            @Valid @RequestBody BatchInvoiceRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetails currentUser
+    ) {
+        String username = currentUser != null ? currentUser.getUsername() : null;
+        if (username == null) {
+            return ResponseEntity.status(401).build();
+        }
+        BatchInvoiceResponse response = idempotencyStore.execute("invoices.batch", username, idempotencyKey, request,
+                () -> salesInvoiceService.createInvoices(request.getInvoices(), username));
+        return ResponseEntity.ok(response);
+    }
+
+    /** Streams every invoice header in the date range, oldest first. Params as for the list endpoint plus {@code format} (csv | ndjson); gzip when accepted. */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer customerId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ExportService.Format fmt = ExportService.Format.parse(format);
+        return ExportResponses.stream("invoices", fmt, acceptEncoding,
+                out -> exportService.exportInvoices(fromDate, toDate, customerId, fmt, out));
+    }
+
     @GetMapping("/navigate")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
     public ResponseEntity<InvoiceSummaryDto> navigate(
@@ -94,9 +134,10 @@ public class SalesInvoiceController {
     @GetMapping("/next-number")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
     public ResponseEntity<String> getNextInvoiceNumber(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Integer branchId
     ) {
-        return ResponseEntity.ok(salesInvoiceService.getNextInvoiceNumber(date));
+        return ResponseEntity.ok(salesInvoiceService.getNextInvoiceNumber(date, branchId));
     }
 
     @GetMapping("/number/{invoiceNumber}")
@@ -116,4 +157,17 @@ public class SalesInvoiceController {
         Page<InvoiceSummaryDto> page = salesInvoiceService.findAll(fromDate, toDate, customerId, pageable);
         return ResponseEntity.ok(page);
     }
+
+    /** Keyset-paginated list, newest first, without totals. Pass the previous response's {@code nextCursor} as {@code cursor}. */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
+    public ResponseEntity<CursorPage<InvoiceSummaryDto>> scroll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(salesInvoiceService.scroll(fromDate, toDate, customerId, cursor, size));
+    }
 }
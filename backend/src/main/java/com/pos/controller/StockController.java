@@ -1,19 +1,24 @@
 package com.pos.controller;
 
+import com.pos.dto.CursorPage;
 import com.pos.dto.StockInRequest;
 import com.pos.dto.StockMovementResponse;
 import com.pos.dto.StockOutRequest;
+import com.pos.service.ExportService;
+import com.pos.service.IdempotencyStore;
 import com.pos.service.StockTransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -23,15 +28,19 @@ import java.time.LocalDate;
 public class StockController {
 
     private final StockTransactionService stockTransactionService;
+    private final IdempotencyStore idempotencyStore;
+    private final ExportService exportService;
 
     @PostMapping("/in")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
     public ResponseEntity<StockMovementResponse> stockIn(
             @Valid @RequestBody StockInRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
         String username = currentUser != null ? currentUser.getUsername() : null;
-        StockMovementResponse response = stockTransactionService.stockIn(request, username);
+        StockMovementResponse response = idempotencyStore.execute("stock.in", username, idempotencyKey, request,
+                () -> stockTransactionService.stockIn(request, username));
         return ResponseEntity.ok(response);
     }
 
@@ -39,10 +48,12 @@ public class StockController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
     public ResponseEntity<StockMovementResponse> stockOut(
             @Valid @RequestBody StockOutRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
         String username = currentUser != null ? currentUser.getUsername() : null;
-        StockMovementResponse response = stockTransactionService.stockOut(request, username);
+        StockMovementResponse response = idempotencyStore.execute("stock.out", username, idempotencyKey, request,
+                () -> stockTransactionService.stockOut(request, username));
         return ResponseEntity.ok(response);
     }
 
@@ -57,4 +68,32 @@ public class StockController {
         Page<StockMovementResponse> page = stockTransactionService.getMovements(fromDate, toDate, productId, pageable);
         return ResponseEntity.ok(page);
     }
+
+    /** Keyset-paginated movements, newest first, without totals. Pass the previous response's {@code nextCursor} as {@code cursor}. */
+    @GetMapping("/movements/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'CASHIER')")
+    public ResponseEntity<CursorPage<StockMovementResponse>> scrollMovements(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(stockTransactionService.scrollMovements(fromDate, toDate, productId, cursor, size));
+    }
+
+    /** Streams every stock movement line in the date range, oldest first. Params as for the list endpoint plus {@code format} (csv | ndjson); gzip when accepted. */
+    @GetMapping("/movements/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportMovements(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer productId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ExportService.Format fmt = ExportService.Format.parse(format);
+        return ExportResponses.stream("stock-movements", fmt, acceptEncoding,
+                out -> exportService.exportStockMovements(fromDate, toDate, productId, fmt, out));
+    }
 }
@@ -0,0 +1,42 @@
+package com.pos.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Next free invoice sequence per branch per day. branch_id 0 is used for invoices without a branch.
+ * The application reserves numbers in blocks, so next_value is a high-water mark, not a count.
+ */
+@Entity
+@Table(name = "invoice_number_counters")
+@IdClass(InvoiceNumberCounterId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberCounter {
+
+    @Id
+    @Column(name = "branch_id", nullable = false)
+    private Integer branchId;
+
+    @Id
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "next_value", nullable = false)
+    private Integer nextValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,30 @@
+package com.pos.domain;
+
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberCounterId implements Serializable {
+
+    private Integer branchId;
+    private LocalDate businessDate;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InvoiceNumberCounterId that = (InvoiceNumberCounterId) o;
+        return Objects.equals(branchId, that.branchId) && Objects.equals(businessDate, that.businessDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(branchId, businessDate);
+    }
+}
@@ -16,7 +16,8 @@ import java.time.Instant;
 public class PurchaseOrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_item_seq")
+    @SequenceGenerator(name = "purchase_order_item_seq", sequenceName = "purchase_order_items_purchase_order_item_id_seq", allocationSize = 50)
     @Column(name = "purchase_order_item_id")
     private Integer purchaseOrderItemId;
 
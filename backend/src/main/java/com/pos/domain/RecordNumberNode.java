@@ -0,0 +1,36 @@
+package com.pos.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Persisted high-water mark of the record number allocator for one application node.
+ * Record numbers issued by the node never use a timestamp at or above high_water_ms until it is advanced.
+ */
+@Entity
+@Table(name = "record_number_nodes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecordNumberNode {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(name = "high_water_ms", nullable = false)
+    private Long highWaterMs;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+}
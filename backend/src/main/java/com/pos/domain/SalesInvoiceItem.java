@@ -16,7 +16,8 @@ import java.time.Instant;
 public class SalesInvoiceItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_invoice_item_seq")
+    @SequenceGenerator(name = "sales_invoice_item_seq", sequenceName = "sales_invoice_items_sales_invoice_item_id_seq", allocationSize = 50)
     @Column(name = "sales_invoice_item_id")
     private Integer salesInvoiceItemId;
 
@@ -16,7 +16,8 @@ import java.time.Instant;
 public class StockTransactionItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_transaction_item_seq")
+    @SequenceGenerator(name = "stock_transaction_item_seq", sequenceName = "stock_transaction_items_stock_transaction_item_id_seq", allocationSize = 50)
     @Column(name = "stock_transaction_item_id")
     private Integer stockTransactionItemId;
 
@@ -0,0 +1,20 @@
+package com.pos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/** Invoices captured offline, replayed in one request; applied in list order. */
+@Data
+public class BatchInvoiceRequest {
+
+    @NotNull(message = "Invoices are required")
+    @NotEmpty(message = "At least one invoice is required")
+    @Size(max = 500, message = "At most 500 invoices per batch")
+    @Valid
+    private List<CreateInvoiceRequest> invoices;
+}
@@ -0,0 +1,36 @@
+package com.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchInvoiceResponse {
+
+    private int succeeded;
+    private int failed;
+    /** One result per submitted invoice, in request order. */
+    private List<Result> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        /** Position of the invoice in the request. */
+        private int index;
+        private boolean success;
+        private String invoiceNumber;
+        private Integer invoiceId;
+        private BigDecimal netTotal;
+        /** Why the invoice was rejected (when success is false). */
+        private String error;
+    }
+}
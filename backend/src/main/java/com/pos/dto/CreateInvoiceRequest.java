@@ -14,7 +14,7 @@ import java.util.List;
 @Data
 public class CreateInvoiceRequest {
 
-    @NotNull(message = "Invoice number is required")
+    /** Optional; when blank the server allocates the next INV-YYYYMMDD-NNNN for the invoice date and branch. */
     private String invoiceNumber;
 
     private Integer branchId;
@@ -0,0 +1,21 @@
+package com.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** One page of a keyset-paginated list. There is no total count; keep requesting with {@code nextCursor} until it is null. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    /** Pass as {@code cursor} to fetch the page after this one; null on the last page. */
+    private String nextCursor;
+}
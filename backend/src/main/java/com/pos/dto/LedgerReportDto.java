@@ -28,5 +28,7 @@ public class LedgerReportDto {
     private String closingBalanceType; // "Dr" or "Cr"
     private long totalElements;
     private int totalPages;
-    private int number; // current page 0-based
+    private Integer number; // current page 0-based; null when paging by cursor
+    /** Pass as {@code cursor} to fetch the page after this one; null on the last page. */
+    private String nextCursor;
 }
@@ -0,0 +1,26 @@
+package com.pos.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Every dashboard KPI in one response (GET /v1/dashboard/summary). */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSummaryDto {
+
+    private TodaySalesDto todaySales;
+    private MonthToDateDto monthToDate;
+    private ProfitDto profit;
+    private SalesTrendDto salesTrend;
+    private List<BestSellingProductDto> bestSellingProducts;
+    private List<TopCustomerDto> topCustomers;
+    private CashFlowDto cashFlow;
+    private List<StockAlertDto> stockAlerts;
+    private CashCreditRatioDto cashCreditRatio;
+}
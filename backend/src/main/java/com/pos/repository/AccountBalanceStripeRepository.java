@@ -0,0 +1,44 @@
+package com.pos.repository;
+
+import com.pos.domain.Account;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/** account_balance_stripes: unfolded balance deltas of busy shared accounts. */
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<Account, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_stripes (account_id, slot, delta) VALUES (:accountId, :slot, :delta) " +
+           "ON CONFLICT (account_id, slot) DO UPDATE SET delta = account_balance_stripes.delta + EXCLUDED.delta", nativeQuery = true)
+    int addDelta(@Param("accountId") Integer accountId, @Param("slot") int slot, @Param("delta") BigDecimal delta);
+
+    @Query(value = "SELECT DISTINCT account_id FROM account_balance_stripes", nativeQuery = true)
+    List<Integer> findAccountIdsWithStripes();
+
+    /**
+     * Moves the account's stripes into accounts.current_balance in one statement: the stripe rows are deleted
+     * (and locked) and their sum added to the account, so a concurrent posting lands either before the fold
+     * or in a fresh stripe row.
+     */
+    @Modifying
+    @Query(value = "WITH moved AS (DELETE FROM account_balance_stripes WHERE account_id = :accountId RETURNING delta), " +
+           "total AS (SELECT COALESCE(SUM(delta), 0) AS delta FROM moved) " +
+           "UPDATE accounts a SET current_balance = a.current_balance + t.delta, " +
+           "balance_type = CASE WHEN a.current_balance + t.delta >= 0 THEN 'Dr' ELSE 'Cr' END, " +
+           "updated_at = CURRENT_TIMESTAMP " +
+           "FROM total t WHERE a.account_id = :accountId AND t.delta <> 0", nativeQuery = true)
+    int fold(@Param("accountId") Integer accountId);
+
+    /** [account_id, current_balance + unfolded deltas] read in one statement so a concurrent fold is never half-seen. */
+    @Query(value = "SELECT a.account_id, a.current_balance + COALESCE((SELECT SUM(s.delta) FROM account_balance_stripes s WHERE s.account_id = a.account_id), 0) " +
+           "FROM accounts a WHERE a.account_id IN (:accountIds)", nativeQuery = true)
+    List<Object[]> balancesWithUnfolded(@Param("accountIds") Collection<Integer> accountIds);
+}
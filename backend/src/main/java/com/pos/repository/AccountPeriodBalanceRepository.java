@@ -0,0 +1,28 @@
+package com.pos.repository;
+
+import com.pos.domain.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Incremental upserts into account_period_balances (monthly debit/credit totals per account, split over slots). */
+@Repository
+public interface AccountPeriodBalanceRepository extends JpaRepository<LedgerEntry, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO account_period_balances (account_id, period_start, slot, debit_total, credit_total) " +
+           "VALUES (:accountId, :periodStart, :slot, :debit, :credit) " +
+           "ON CONFLICT (account_id, period_start, slot) DO UPDATE SET " +
+           "debit_total = account_period_balances.debit_total + EXCLUDED.debit_total, " +
+           "credit_total = account_period_balances.credit_total + EXCLUDED.credit_total", nativeQuery = true)
+    int addMovement(@Param("accountId") Integer accountId,
+                    @Param("periodStart") LocalDate periodStart,
+                    @Param("slot") int slot,
+                    @Param("debit") BigDecimal debit,
+                    @Param("credit") BigDecimal credit);
+}
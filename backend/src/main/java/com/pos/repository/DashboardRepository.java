@@ -15,6 +15,8 @@ import com.pos.domain.SalesInvoice;
  * Dashboard aggregations.
  * - today/month-to-date: JPQL with LocalDateTime range (full-day inclusive when column is TIMESTAMP/TIMESTAMPTZ).
  * - profit and other date-filtered: native SQL with exclusive upper bound (to_date + interval '1 day') for full-day inclusion.
+ * - sales totals, trends, cash/credit and product figures read the daily rollups (daily_sales_rollups,
+ *   daily_product_sales_rollups) kept current by SalesRollupService, so they scan days rather than invoices.
  */
 @Repository
 public interface DashboardRepository extends JpaRepository<SalesInvoice, Integer> {
@@ -25,35 +27,35 @@ public interface DashboardRepository extends JpaRepository<SalesInvoice, Integer
 		Object[] todaySales(@Param("from") LocalDate from,
 		                     @Param("to") LocalDate to);
 
-	/** Same as todaySales but native SQL with string dates (consistent with salesTrendDaily date handling). */
-	@Query(value = "SELECT COALESCE(SUM(si.net_total), 0), COUNT(*) " +
-	        "FROM sales_invoices si " +
-	        "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') " +
-	        "AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'",
+	/** Same as todaySales but from daily_sales_rollups with string dates (consistent with salesTrendDaily date handling). */
+	@Query(value = "SELECT COALESCE(SUM(r.net_total), 0), COALESCE(SUM(r.invoice_count), 0) " +
+	        "FROM daily_sales_rollups r " +
+	        "WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') " +
+	        "AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'",
 	        nativeQuery = true)
 	Object[] todaySalesByDateStr(@Param("fromDateStr") String fromDateStr,
 	                             @Param("toDateStr") String toDateStr);
-	@Query(value = "SELECT COALESCE(SUM(si.net_total), 0), COUNT(*) " +
-	        "FROM sales_invoices si " +
-	        "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') " +
-	        "AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'",
+	@Query(value = "SELECT COALESCE(SUM(r.net_total), 0), COALESCE(SUM(r.invoice_count), 0) " +
+	        "FROM daily_sales_rollups r " +
+	        "WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') " +
+	        "AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'",
 	        nativeQuery = true)
 	Object[] monthToDateSales(
 	        @Param("fromDateStr") String fromDateStr,
 	        @Param("toDateStr") String toDateStr);
 
     @Query(value = "SELECT " +
-           "COALESCE((SELECT SUM(si2.net_total) FROM sales_invoices si2 WHERE si2.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si2.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'), 0) AS revenue, " +
-           "COALESCE((SELECT SUM(sii.quantity * p.cost_price) FROM sales_invoice_items sii JOIN sales_invoices si ON si.sales_invoice_id = sii.sales_invoice_id JOIN products p ON p.product_id = sii.product_id WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'), 0) AS cost", nativeQuery = true)
+           "COALESCE((SELECT SUM(r.net_total) FROM daily_sales_rollups r WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'), 0) AS revenue, " +
+           "COALESCE((SELECT SUM(pr.quantity * p.cost_price) FROM daily_product_sales_rollups pr JOIN products p ON p.product_id = pr.product_id WHERE pr.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND pr.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'), 0) AS cost", nativeQuery = true)
     Object[] profitAggregate(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr);
 
     @Query(value = "SELECT p.product_id, p.code, p.name_en, " +
-           "COALESCE(SUM(sii.quantity), 0) AS qty_sold, COALESCE(SUM(sii.line_total), 0) AS revenue " +
-           "FROM sales_invoice_items sii " +
-           "JOIN sales_invoices si ON si.sales_invoice_id = sii.sales_invoice_id " +
-           "JOIN products p ON p.product_id = sii.product_id " +
-           "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
+           "COALESCE(SUM(pr.quantity), 0) AS qty_sold, COALESCE(SUM(pr.revenue), 0) AS revenue " +
+           "FROM daily_product_sales_rollups pr " +
+           "JOIN products p ON p.product_id = pr.product_id " +
+           "WHERE pr.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND pr.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
            "GROUP BY p.product_id, p.code, p.name_en " +
+           "HAVING SUM(pr.quantity) <> 0 OR SUM(pr.revenue) <> 0 " +
            "ORDER BY qty_sold DESC " +
            "LIMIT :limit", nativeQuery = true)
     List<Object[]> bestSellingProducts(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr, @Param("limit") int limit);
@@ -68,17 +70,19 @@ public interface DashboardRepository extends JpaRepository<SalesInvoice, Integer
            "LIMIT :limit", nativeQuery = true)
     List<Object[]> topCustomers(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr, @Param("limit") int limit);
 
-    @Query(value = "SELECT si.invoice_date AS date, COALESCE(SUM(si.net_total), 0) AS amount, COUNT(*) AS invoice_count " +
-           "FROM sales_invoices si " +
-           "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
-           "GROUP BY si.invoice_date " +
-           "ORDER BY si.invoice_date", nativeQuery = true)
+    @Query(value = "SELECT r.business_date AS date, COALESCE(SUM(r.net_total), 0) AS amount, COALESCE(SUM(r.invoice_count), 0) AS invoice_count " +
+           "FROM daily_sales_rollups r " +
+           "WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
+           "GROUP BY r.business_date " +
+           "HAVING SUM(r.invoice_count) > 0 " +
+           "ORDER BY r.business_date", nativeQuery = true)
     List<Object[]> salesTrendDaily(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr);
 
-    @Query(value = "SELECT DATE_TRUNC('month', si.invoice_date)::date AS month_start, COALESCE(SUM(si.net_total), 0) AS amount, COUNT(*) AS invoice_count " +
-           "FROM sales_invoices si " +
-           "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
-           "GROUP BY DATE_TRUNC('month', si.invoice_date) " +
+    @Query(value = "SELECT DATE_TRUNC('month', r.business_date)::date AS month_start, COALESCE(SUM(r.net_total), 0) AS amount, COALESCE(SUM(r.invoice_count), 0) AS invoice_count " +
+           "FROM daily_sales_rollups r " +
+           "WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day' " +
+           "GROUP BY DATE_TRUNC('month', r.business_date) " +
+           "HAVING SUM(r.invoice_count) > 0 " +
            "ORDER BY month_start", nativeQuery = true)
     List<Object[]> salesTrendMonthly(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr);
 
@@ -104,9 +108,8 @@ public interface DashboardRepository extends JpaRepository<SalesInvoice, Integer
            "ORDER BY p.current_stock ASC", nativeQuery = true)
     List<Object[]> stockAlerts();
 
-    @Query(value = "SELECT COALESCE(SUM(CASE WHEN si.is_cash_customer = true THEN si.net_total ELSE 0 END), 0) AS cash_total, " +
-           "COALESCE(SUM(CASE WHEN si.is_cash_customer = false AND si.customer_id IS NOT NULL THEN si.net_total ELSE 0 END), 0) AS credit_total " +
-           "FROM sales_invoices si " +
-           "WHERE si.invoice_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND si.invoice_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'", nativeQuery = true)
+    @Query(value = "SELECT COALESCE(SUM(r.cash_total), 0) AS cash_total, COALESCE(SUM(r.credit_total), 0) AS credit_total " +
+           "FROM daily_sales_rollups r " +
+           "WHERE r.business_date >= to_date(:fromDateStr, 'YYYY-MM-DD') AND r.business_date < to_date(:toDateStr, 'YYYY-MM-DD') + interval '1 day'", nativeQuery = true)
     Object[] cashCreditRatio(@Param("fromDateStr") String fromDateStr, @Param("toDateStr") String toDateStr);
 }
@@ -0,0 +1,29 @@
+package com.pos.repository;
+
+import com.pos.domain.InvoiceNumberCounter;
+import com.pos.domain.InvoiceNumberCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNumberCounter, InvoiceNumberCounterId> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InvoiceNumberCounter c WHERE c.branchId = :branchId AND c.businessDate = :businessDate")
+    Optional<InvoiceNumberCounter> findForUpdate(@Param("branchId") Integer branchId, @Param("businessDate") LocalDate businessDate);
+
+    /** Creates the day's counter if no other node has done so yet. */
+    @Modifying
+    @Query(value = "INSERT INTO invoice_number_counters (branch_id, business_date, next_value, updated_at) " +
+           "VALUES (:branchId, :businessDate, :nextValue, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (branch_id, business_date) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("branchId") Integer branchId, @Param("businessDate") LocalDate businessDate, @Param("nextValue") Integer nextValue);
+}
@@ -0,0 +1,15 @@
+package com.pos.repository;
+
+import com.pos.domain.LedgerEntry;
+
+import java.util.List;
+
+/** Bulk insert for ledger entries, mixed into {@link LedgerEntryRepository}. */
+public interface LedgerEntryBatchRepository {
+
+    /**
+     * Inserts the (unsaved) entries with one JDBC batch. Only the account and user ids of the entries' associations
+     * are used; ids and created_at are assigned by the database and not set back on the entries.
+     */
+    void insertAll(List<LedgerEntry> entries);
+}
@@ -0,0 +1,35 @@
+package com.pos.repository;
+
+import com.pos.domain.LedgerEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LedgerEntryBatchRepositoryImpl implements LedgerEntryBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_entries (voucher_no, account_id, transaction_date, description, debit_amount, credit_amount, ref_type, ref_id, created_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, e) -> {
+            ps.setString(1, e.getVoucherNo());
+            ps.setInt(2, e.getAccount().getAccountId());
+            ps.setDate(3, Date.valueOf(e.getTransactionDate()));
+            ps.setString(4, e.getDescription());
+            ps.setBigDecimal(5, e.getDebitAmount());
+            ps.setBigDecimal(6, e.getCreditAmount());
+            ps.setString(7, e.getRefType());
+            ps.setObject(8, e.getRefId(), Types.BIGINT);
+            ps.setObject(9, e.getCreatedBy() != null ? e.getCreatedBy().getUserId() : null, Types.INTEGER);
+        });
+    }
+}
@@ -1,18 +1,24 @@
 package com.pos.repository;
 
 import com.pos.domain.LedgerEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Integer> {
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Integer>, LedgerEntryBatchRepository {
 
     /** All params required; use from LedgerService with normalized dates and optional accountId. */
     @Query("SELECT e FROM LedgerEntry e JOIN FETCH e.account " +
@@ -35,29 +41,132 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Intege
             Pageable pageable
     );
 
-    @Query("SELECT e FROM LedgerEntry e JOIN FETCH e.account " +
+    /**
+     * Keyset page of all entries in posting order: entries after (afterDate, afterId). No count query.
+     * accountId -1 = all accounts. Limit with {@code PageRequest.of(0, n)}. The seek is a row-value comparison
+     * so the index scan starts at the cursor instead of filtering out the rows before it.
+     */
+    @Query("SELECT e FROM LedgerEntry e JOIN FETCH e.account a " +
+           "WHERE e.transactionDate >= :fromDate AND e.transactionDate <= :toDate " +
+           "AND (:accountId < 0 OR a.accountId = :accountId) " +
+           "AND e.transactionDate >= :afterDate AND (e.transactionDate, e.ledgerEntryId) > (:afterDate, :afterId) " +
+           "ORDER BY e.transactionDate, e.ledgerEntryId")
+    List<LedgerEntry> findPageAfter(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("accountId") Integer accountId,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Integer afterId,
+            Pageable pageable
+    );
+
+    /** One report page by offset (no count query; totals come from {@link #periodTotals}). */
+    @Query("SELECT e FROM LedgerEntry e " +
            "WHERE e.account.accountId = :accountId AND e.transactionDate >= :fromDate AND e.transactionDate <= :toDate " +
            "ORDER BY e.transactionDate, e.ledgerEntryId")
-    List<LedgerEntry> findAllByAccountAndDateRangeOrderByDate(
+    List<LedgerEntry> findReportPage(
+            @Param("accountId") Integer accountId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            Pageable pageable
+    );
+
+    /** One report page after a (date, id) keyset position; served by idx_ledger_entries_account_date_id. */
+    @Query("SELECT e FROM LedgerEntry e " +
+           "WHERE e.account.accountId = :accountId AND e.transactionDate >= :fromDate AND e.transactionDate <= :toDate " +
+           "AND e.transactionDate >= :afterDate AND (e.transactionDate, e.ledgerEntryId) > (:afterDate, :afterId) " +
+           "ORDER BY e.transactionDate, e.ledgerEntryId")
+    List<LedgerEntry> findReportPageAfter(
+            @Param("accountId") Integer accountId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Integer afterId,
+            Pageable pageable
+    );
+
+    /**
+     * Report rows for print/export: ledger_entry_id, voucher_no, transaction_date, description, debit_amount, credit_amount.
+     * Read through a server-side cursor (fetch size) as plain rows, so nothing accumulates in the persistence context.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT le.ledger_entry_id, le.voucher_no, le.transaction_date, le.description, le.debit_amount, le.credit_amount " +
+           "FROM ledger_entries le " +
+           "WHERE le.account_id = :accountId AND le.transaction_date >= :fromDate AND le.transaction_date <= :toDate " +
+           "ORDER BY le.transaction_date, le.ledger_entry_id", nativeQuery = true)
+    Stream<Object[]> streamReportRows(
             @Param("accountId") Integer accountId,
             @Param("fromDate") LocalDate fromDate,
             @Param("toDate") LocalDate toDate
     );
 
+    /**
+     * Debit/credit totals per active account up to and including asOfDate: whole months before asOfDate's month
+     * from account_period_balances, plus that month's entries up to asOfDate.
+     */
     @Query(value = "SELECT a.account_id, a.account_code, a.account_name, " +
-           "COALESCE(SUM(le.debit_amount), 0) AS debit_total, COALESCE(SUM(le.credit_amount), 0) AS credit_total " +
+           "COALESCE(p.debit_total, 0) + COALESCE(t.debit_total, 0) AS debit_total, " +
+           "COALESCE(p.credit_total, 0) + COALESCE(t.credit_total, 0) AS credit_total " +
            "FROM accounts a " +
-           "LEFT JOIN ledger_entries le ON le.account_id = a.account_id AND le.transaction_date <= :asOfDate " +
+           "LEFT JOIN (SELECT account_id, SUM(debit_total) AS debit_total, SUM(credit_total) AS credit_total " +
+           "  FROM account_period_balances WHERE period_start < CAST(DATE_TRUNC('month', CAST(:asOfDate AS date)) AS date) " +
+           "  GROUP BY account_id) p ON p.account_id = a.account_id " +
+           "LEFT JOIN (SELECT account_id, SUM(debit_amount) AS debit_total, SUM(credit_amount) AS credit_total " +
+           "  FROM ledger_entries WHERE transaction_date >= CAST(DATE_TRUNC('month', CAST(:asOfDate AS date)) AS date) AND transaction_date <= :asOfDate " +
+           "  GROUP BY account_id) t ON t.account_id = a.account_id " +
            "WHERE a.is_active = true " +
-           "GROUP BY a.account_id, a.account_code, a.account_name " +
-           "HAVING COALESCE(SUM(le.debit_amount), 0) <> 0 OR COALESCE(SUM(le.credit_amount), 0) <> 0 " +
+           "AND (COALESCE(p.debit_total, 0) + COALESCE(t.debit_total, 0) <> 0 OR COALESCE(p.credit_total, 0) + COALESCE(t.credit_total, 0) <> 0) " +
            "ORDER BY a.account_code", nativeQuery = true)
     List<Object[]> trialBalanceAsOf(@Param("asOfDate") LocalDate asOfDate);
 
-    @Query("SELECT COALESCE(SUM(e.debitAmount - e.creditAmount), 0) FROM LedgerEntry e WHERE e.account.accountId = :accountId AND e.transactionDate < :beforeDate")
-    java.math.BigDecimal openingBalanceBefore(@Param("accountId") Integer accountId, @Param("beforeDate") LocalDate beforeDate);
+    /** Net (debit - credit) before beforeDate: monthly totals for earlier months plus the tail of beforeDate's month. */
+    @Query(value = "SELECT " +
+           "COALESCE((SELECT SUM(p.debit_total - p.credit_total) FROM account_period_balances p " +
+           "  WHERE p.account_id = :accountId AND p.period_start < CAST(DATE_TRUNC('month', CAST(:beforeDate AS date)) AS date)), 0) + " +
+           "COALESCE((SELECT SUM(le.debit_amount - le.credit_amount) FROM ledger_entries le " +
+           "  WHERE le.account_id = :accountId AND le.transaction_date >= CAST(DATE_TRUNC('month', CAST(:beforeDate AS date)) AS date) " +
+           "  AND le.transaction_date < :beforeDate), 0)", nativeQuery = true)
+    BigDecimal openingBalanceBefore(@Param("accountId") Integer accountId, @Param("beforeDate") LocalDate beforeDate);
+
+    /** Net (debit - credit) of every entry strictly before the given (date, id) position; same month split as above. */
+    @Query(value = "SELECT " +
+           "COALESCE((SELECT SUM(p.debit_total - p.credit_total) FROM account_period_balances p " +
+           "  WHERE p.account_id = :accountId AND p.period_start < CAST(DATE_TRUNC('month', CAST(:date AS date)) AS date)), 0) + " +
+           "COALESCE((SELECT SUM(le.debit_amount - le.credit_amount) FROM ledger_entries le " +
+           "  WHERE le.account_id = :accountId AND le.transaction_date >= CAST(DATE_TRUNC('month', CAST(:date AS date)) AS date) " +
+           "  AND (le.transaction_date < :date OR (le.transaction_date = :date AND le.ledger_entry_id < :entryId))), 0)", nativeQuery = true)
+    BigDecimal balanceBeforeEntry(@Param("accountId") Integer accountId, @Param("date") LocalDate date, @Param("entryId") Integer entryId);
 
-    @Query("SELECT COALESCE(SUM(e.debitAmount), 0), COALESCE(SUM(e.creditAmount), 0) FROM LedgerEntry e " +
+    /** [total debit, total credit, entry count] for the account in the range. */
+    @Query("SELECT COALESCE(SUM(e.debitAmount), 0), COALESCE(SUM(e.creditAmount), 0), COUNT(e) FROM LedgerEntry e " +
            "WHERE e.account.accountId = :accountId AND e.transactionDate >= :fromDate AND e.transactionDate <= :toDate")
     Object[] periodTotals(@Param("accountId") Integer accountId, @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /** Which of these voucher numbers already have ledger entries. */
+    @Query("SELECT DISTINCT e.voucherNo FROM LedgerEntry e WHERE e.voucherNo IN :voucherNos")
+    List<String> findExistingVoucherNos(@Param("voucherNos") Collection<String> voucherNos);
+
+    /**
+     * Ledger entries for export, in posting order, read through a forward-only cursor (close the stream).
+     * accountId -1 = all accounts. Columns: see {@code ExportService.LEDGER_COLUMNS}.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT le.ledger_entry_id, le.voucher_no, le.transaction_date, le.account_id, a.account_code, a.account_name, " +
+           "le.description, le.debit_amount, le.credit_amount, le.ref_type, le.ref_id " +
+           "FROM ledger_entries le JOIN accounts a ON a.account_id = le.account_id " +
+           "WHERE le.transaction_date >= :fromDate AND le.transaction_date <= :toDate " +
+           "AND (:accountId < 0 OR le.account_id = :accountId) " +
+           "ORDER BY le.transaction_date, le.ledger_entry_id", nativeQuery = true)
+    Stream<Object[]> streamForExport(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("accountId") Integer accountId
+    );
 }
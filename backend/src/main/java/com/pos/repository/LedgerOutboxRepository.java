@@ -0,0 +1,59 @@
+package com.pos.repository;
+
+import com.pos.domain.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ledger_outbox: vouchers queued for posting. Claimed rows are returned as
+ * [outbox_id, voucher_no, transaction_date, description, debit_account_id, credit_account_id, amount, ref_type, ref_id, created_by].
+ */
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerEntry, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO ledger_outbox (voucher_no, transaction_date, description, debit_account_id, credit_account_id, amount, ref_type, ref_id, created_by) " +
+           "VALUES (:voucherNo, :date, :description, :debitAccountId, :creditAccountId, :amount, :refType, :refId, :createdBy) " +
+           "ON CONFLICT (voucher_no) DO NOTHING", nativeQuery = true)
+    int enqueue(@Param("voucherNo") String voucherNo,
+                @Param("date") LocalDate date,
+                @Param("description") String description,
+                @Param("debitAccountId") Integer debitAccountId,
+                @Param("creditAccountId") Integer creditAccountId,
+                @Param("amount") BigDecimal amount,
+                @Param("refType") String refType,
+                @Param("refId") Long refId,
+                @Param("createdBy") Integer createdBy);
+
+    /** Oldest pending rows, locked; rows locked by another worker are skipped. */
+    @Query(value = "SELECT outbox_id, voucher_no, transaction_date, description, debit_account_id, credit_account_id, amount, ref_type, ref_id, created_by " +
+           "FROM ledger_outbox WHERE attempts < :maxAttempts ORDER BY outbox_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> claim(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    @Query(value = "SELECT outbox_id, voucher_no, transaction_date, description, debit_account_id, credit_account_id, amount, ref_type, ref_id, created_by " +
+           "FROM ledger_outbox WHERE outbox_id = :outboxId AND attempts < :maxAttempts FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Object[]> claimById(@Param("outboxId") long outboxId, @Param("maxAttempts") int maxAttempts);
+
+    @Query(value = "SELECT outbox_id FROM ledger_outbox WHERE attempts < :maxAttempts ORDER BY outbox_id LIMIT :limit", nativeQuery = true)
+    List<Long> findPendingIds(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /** Rows the workers have given up on (attempts used up); they need a look by hand. */
+    @Query(value = "SELECT COUNT(*) FROM ledger_outbox WHERE attempts >= :maxAttempts", nativeQuery = true)
+    long countFailed(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query(value = "DELETE FROM ledger_outbox WHERE outbox_id IN (:outboxIds)", nativeQuery = true)
+    int deletePosted(@Param("outboxIds") Collection<Long> outboxIds);
+
+    @Modifying
+    @Query(value = "UPDATE ledger_outbox SET attempts = attempts + 1, last_error = LEFT(:error, 1000) WHERE outbox_id = :outboxId", nativeQuery = true)
+    int recordFailure(@Param("outboxId") long outboxId, @Param("error") String error);
+}
@@ -5,10 +5,13 @@ import com.pos.domain.ProductUomPriceId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductUomPriceRepository extends JpaRepository<ProductUomPrice, ProductUomPriceId> {
 
     List<ProductUomPrice> findByProductIdOrderByUomId(Integer productId);
+
+    List<ProductUomPrice> findByProductIdInOrderByProductIdAscUomIdAsc(Collection<Integer> productIds);
 }
@@ -0,0 +1,19 @@
+package com.pos.repository;
+
+import com.pos.domain.RecordNumberNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface RecordNumberNodeRepository extends JpaRepository<RecordNumberNode, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM RecordNumberNode n WHERE n.nodeId = :nodeId")
+    Optional<RecordNumberNode> findForUpdate(@Param("nodeId") Integer nodeId);
+}
@@ -1,15 +1,20 @@
 package com.pos.repository;
 
 import com.pos.domain.SalesInvoice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SalesInvoiceRepository extends JpaRepository<SalesInvoice, Integer> {
@@ -22,10 +27,17 @@ public interface SalesInvoiceRepository extends JpaRepository<SalesInvoice, Inte
 
     Optional<SalesInvoice> findByInvoiceNumber(String invoiceNumber);
 
-    @Query("SELECT i FROM SalesInvoice i " +
+    boolean existsByInvoiceNumber(String invoiceNumber);
+
+    /** Customer fetched with the page: the summary shows its name. */
+    @Query(value = "SELECT i FROM SalesInvoice i LEFT JOIN FETCH i.customer " +
+           "WHERE (:fromDate IS NULL OR i.invoiceDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR i.invoiceDate <= :toDate) " +
+           "AND (:customerId IS NULL OR i.customer.customerId = :customerId)",
+           countQuery = "SELECT COUNT(i) FROM SalesInvoice i " +
            "WHERE (:fromDate IS NULL OR i.invoiceDate >= :fromDate) " +
            "AND (:toDate IS NULL OR i.invoiceDate <= :toDate) " +
-           "AND (:customerId IS NULL OR (i.customer IS NOT NULL AND i.customer.customerId = :customerId))")
+           "AND (:customerId IS NULL OR i.customer.customerId = :customerId)")
     Page<SalesInvoice> findByDateRangeAndCustomer(
             @Param("fromDate") LocalDate fromDate,
             @Param("toDate") LocalDate toDate,
@@ -33,6 +45,25 @@ public interface SalesInvoiceRepository extends JpaRepository<SalesInvoice, Inte
             Pageable pageable
     );
 
+    /**
+     * Keyset page for Sales History, newest first: invoices before (beforeDate, beforeId). No count query.
+     * customerId -1 = all customers. Limit with {@code PageRequest.of(0, n)}. The row-value comparison (with the
+     * redundant date bound) lets PostgreSQL start the idx_sales_invoices_date_id scan at the cursor.
+     */
+    @Query("SELECT i FROM SalesInvoice i LEFT JOIN FETCH i.customer c " +
+           "WHERE i.invoiceDate >= :fromDate AND i.invoiceDate <= :toDate " +
+           "AND (:customerId < 0 OR c.customerId = :customerId) " +
+           "AND i.invoiceDate <= :beforeDate AND (i.invoiceDate, i.salesInvoiceId) < (:beforeDate, :beforeId) " +
+           "ORDER BY i.invoiceDate DESC, i.salesInvoiceId DESC")
+    List<SalesInvoice> findPageBefore(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("customerId") Integer customerId,
+            @Param("beforeDate") LocalDate beforeDate,
+            @Param("beforeId") Integer beforeId,
+            Pageable pageable
+    );
+
     /** First invoice (min id) on given date. For sequential navigation "First". */
     @Query("SELECT i FROM SalesInvoice i WHERE i.invoiceDate = :date ORDER BY i.salesInvoiceId ASC")
     Page<SalesInvoice> findFirstByDateOrderByIdAsc(@Param("date") LocalDate date, Pageable pageable);
@@ -49,10 +80,36 @@ public interface SalesInvoiceRepository extends JpaRepository<SalesInvoice, Inte
     @Query("SELECT i FROM SalesInvoice i WHERE (i.invoiceDate > :date) OR (i.invoiceDate = :date AND i.salesInvoiceId > :currentId) ORDER BY i.invoiceDate ASC, i.salesInvoiceId ASC")
     Page<SalesInvoice> findNextInvoice(@Param("date") LocalDate date, @Param("currentId") Integer currentId, Pageable pageable);
 
-    /** For sequential next-number: highest invoice number for the day (prefix INV-YYYYMMDD-). */
-    Optional<SalesInvoice> findTop1ByInvoiceNumberStartingWithOrderByInvoiceNumberDesc(String prefix);
+    /** Highest numeric suffix among invoice numbers with the given prefix; used once per day to seed the invoice number counter. */
+    @Query(value = "SELECT MAX(CAST(SUBSTRING(invoice_number FROM LENGTH(:prefix) + 1) AS INTEGER)) FROM sales_invoices " +
+           "WHERE invoice_number LIKE CONCAT(:prefix, '%') AND SUBSTRING(invoice_number FROM LENGTH(:prefix) + 1) ~ '^[0-9]+$'", nativeQuery = true)
+    Integer maxSequenceForPrefix(@Param("prefix") String prefix);
 
     /** Find invoice by last-4-digit suffix (e.g. "0058" matches INV-*-0058). One result, most recent by id. */
     @Query("SELECT i FROM SalesInvoice i WHERE i.invoiceNumber LIKE CONCAT('%', :suffix) ORDER BY i.salesInvoiceId DESC")
     Page<SalesInvoice> findByInvoiceNumberEndingWith(@Param("suffix") String suffix, Pageable pageable);
+
+    /**
+     * Invoice headers for export, oldest first, read through a forward-only cursor (close the stream).
+     * customerId -1 = all customers. Columns: see {@code ExportService.INVOICE_COLUMNS}.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT si.sales_invoice_id, si.invoice_number, si.invoice_date, si.invoice_time, si.invoice_status, tt.type_code, " +
+           "si.branch_id, si.customer_id, c.name, si.is_cash_customer, si.grand_total, si.additional_discount, si.additional_expenses, " +
+           "si.net_total, si.amount_received, si.change_returned, u.username " +
+           "FROM sales_invoices si " +
+           "JOIN transaction_types tt ON tt.transaction_type_id = si.transaction_type_id " +
+           "LEFT JOIN customers c ON c.customer_id = si.customer_id " +
+           "LEFT JOIN users u ON u.user_id = si.user_id " +
+           "WHERE si.invoice_date >= :fromDate AND si.invoice_date <= :toDate " +
+           "AND (:customerId < 0 OR si.customer_id = :customerId) " +
+           "ORDER BY si.invoice_date, si.sales_invoice_id", nativeQuery = true)
+    Stream<Object[]> streamForExport(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("customerId") Integer customerId
+    );
 }
@@ -0,0 +1,47 @@
+package com.pos.repository;
+
+import com.pos.domain.SalesInvoice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Incremental upserts into daily_sales_rollups / daily_product_sales_rollups.
+ * Every call adds a (possibly negative) delta to the row, creating it when missing.
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesInvoice, Integer> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (business_date, branch_id, slot, net_total, invoice_count, cash_total, credit_total) " +
+           "VALUES (:businessDate, :branchId, :slot, :netTotal, :invoiceCount, :cashTotal, :creditTotal) " +
+           "ON CONFLICT (business_date, branch_id, slot) DO UPDATE SET " +
+           "net_total = daily_sales_rollups.net_total + EXCLUDED.net_total, " +
+           "invoice_count = daily_sales_rollups.invoice_count + EXCLUDED.invoice_count, " +
+           "cash_total = daily_sales_rollups.cash_total + EXCLUDED.cash_total, " +
+           "credit_total = daily_sales_rollups.credit_total + EXCLUDED.credit_total", nativeQuery = true)
+    int addSales(@Param("businessDate") LocalDate businessDate,
+                 @Param("branchId") int branchId,
+                 @Param("slot") int slot,
+                 @Param("netTotal") BigDecimal netTotal,
+                 @Param("invoiceCount") int invoiceCount,
+                 @Param("cashTotal") BigDecimal cashTotal,
+                 @Param("creditTotal") BigDecimal creditTotal);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_product_sales_rollups (business_date, branch_id, product_id, quantity, revenue) " +
+           "VALUES (:businessDate, :branchId, :productId, :quantity, :revenue) " +
+           "ON CONFLICT (business_date, branch_id, product_id) DO UPDATE SET " +
+           "quantity = daily_product_sales_rollups.quantity + EXCLUDED.quantity, " +
+           "revenue = daily_product_sales_rollups.revenue + EXCLUDED.revenue", nativeQuery = true)
+    int addProductSales(@Param("businessDate") LocalDate businessDate,
+                        @Param("branchId") int branchId,
+                        @Param("productId") int productId,
+                        @Param("quantity") BigDecimal quantity,
+                        @Param("revenue") BigDecimal revenue);
+}
@@ -1,29 +1,95 @@
 package com.pos.repository;
 
 import com.pos.domain.StockTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockTransactionRepository extends JpaRepository<StockTransaction, Integer> {
 
-    boolean existsByRecordNo(String recordNo);
+    /**
+     * First phase of the movement listing: one page of transaction ids, with a count. productId -1 = all products;
+     * otherwise only transactions with a line for that product (EXISTS, so no join or DISTINCT over the lines).
+     * Load the rows with {@link #findAllWithDetails}.
+     */
+    @Query(value = "SELECT st.stockTransactionId FROM StockTransaction st " +
+           "WHERE st.transactionDate >= :fromDate AND st.transactionDate <= :toDate " +
+           "AND (:productId < 0 OR EXISTS (SELECT 1 FROM StockTransactionItem it " +
+           "WHERE it.stockTransaction = st AND it.product.productId = :productId))",
+           countQuery = "SELECT COUNT(st) FROM StockTransaction st " +
+           "WHERE st.transactionDate >= :fromDate AND st.transactionDate <= :toDate " +
+           "AND (:productId < 0 OR EXISTS (SELECT 1 FROM StockTransactionItem it " +
+           "WHERE it.stockTransaction = st AND it.product.productId = :productId))")
+    Page<Integer> findIdsByDateRangeAndProduct(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("productId") Integer productId,
+            Pageable pageable
+    );
 
-    @Query(value = "SELECT DISTINCT st FROM StockTransaction st " +
-           "LEFT JOIN st.items it " +
-           "WHERE st.transactionDate >= :fromDate " +
-           "AND st.transactionDate <= :toDate " +
-           "AND (:productId < 0 OR it.product.productId = :productId)")
-    Page<StockTransaction> findByDateRangeAndProduct(
+    /**
+     * Second phase: the given transactions with type, user, items and products in one query. Rows come back in
+     * no particular order, one per transaction.
+     */
+    @Query("SELECT st FROM StockTransaction st " +
+           "JOIN FETCH st.transactionType " +
+           "LEFT JOIN FETCH st.user " +
+           "LEFT JOIN FETCH st.items it " +
+           "LEFT JOIN FETCH it.product " +
+           "WHERE st.stockTransactionId IN :ids")
+    List<StockTransaction> findAllWithDetails(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Keyset page of movement ids, newest first: transactions before (beforeDate, beforeId). No count query.
+     * productId -1 = all products. Limit with {@code PageRequest.of(0, n)}; load the rows with {@link #findAllWithDetails}.
+     */
+    @Query("SELECT st.stockTransactionId FROM StockTransaction st " +
+           "WHERE st.transactionDate >= :fromDate AND st.transactionDate <= :toDate " +
+           "AND (:productId < 0 OR EXISTS (SELECT 1 FROM StockTransactionItem it " +
+           "WHERE it.stockTransaction = st AND it.product.productId = :productId)) " +
+           "AND st.transactionDate <= :beforeDate AND (st.transactionDate, st.stockTransactionId) < (:beforeDate, :beforeId) " +
+           "ORDER BY st.transactionDate DESC, st.stockTransactionId DESC")
+    List<Integer> findIdsBefore(
             @Param("fromDate") LocalDate fromDate,
             @Param("toDate") LocalDate toDate,
             @Param("productId") Integer productId,
+            @Param("beforeDate") LocalDate beforeDate,
+            @Param("beforeId") Integer beforeId,
             Pageable pageable
     );
+
+    /**
+     * Stock movement lines for export, oldest first, read through a forward-only cursor (close the stream).
+     * productId -1 = all products. Columns: see {@code ExportService.STOCK_COLUMNS}.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT sti.stock_transaction_item_id, st.stock_transaction_id, st.record_no, st.transaction_date, tt.type_code, " +
+           "st.branch_id, sti.product_id, p.code, p.name_en, sti.quantity_change, sti.price_at_transaction, st.description, st.ref_sales_invoice_id " +
+           "FROM stock_transaction_items sti " +
+           "JOIN stock_transactions st ON st.stock_transaction_id = sti.stock_transaction_id " +
+           "JOIN transaction_types tt ON tt.transaction_type_id = st.transaction_type_id " +
+           "JOIN products p ON p.product_id = sti.product_id " +
+           "WHERE st.transaction_date >= :fromDate AND st.transaction_date <= :toDate " +
+           "AND (:productId < 0 OR sti.product_id = :productId) " +
+           "ORDER BY st.transaction_date, st.stock_transaction_id, sti.stock_transaction_item_id", nativeQuery = true)
+    Stream<Object[]> streamForExport(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("productId") Integer productId
+    );
 }
@@ -49,11 +49,15 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /** Verifies the token once and returns its claims, or null if it is invalid or expired. */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
         } catch (SignatureException | MalformedJwtException | ExpiredJwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
 
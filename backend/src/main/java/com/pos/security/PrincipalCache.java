@@ -0,0 +1,90 @@
+package com.pos.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of the user state JwtAuthenticationFilter needs (enabled flag and stored authorities),
+ * so authenticating a request does not hit the database. Bounded in size; entries expire after
+ * {@code jwt.principal-cache.ttl-ms}. Call {@link #evict(String)} when a user is deactivated or changed.
+ */
+@Component
+public class PrincipalCache {
+
+    /** Cached user state; never holds the password hash. */
+    public record CachedPrincipal(String username, boolean enabled, List<GrantedAuthority> authorities, long expiresAtMs) {
+    }
+
+    private final Map<String, CachedPrincipal> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxSize;
+    private final Clock clock;
+
+    @Autowired
+    public PrincipalCache(
+            @Value("${jwt.principal-cache.ttl-ms:60000}") long ttlMs,
+            @Value("${jwt.principal-cache.max-size:1000}") int maxSize
+    ) {
+        this(ttlMs, maxSize, Clock.systemUTC());
+    }
+
+    public PrincipalCache(long ttlMs, int maxSize, Clock clock) {
+        this.ttlMs = ttlMs;
+        this.maxSize = Math.max(1, maxSize);
+        this.clock = clock;
+    }
+
+    /** Returns the cached state for the user, or null if absent or expired. */
+    public CachedPrincipal get(String username) {
+        CachedPrincipal cached = entries.get(username);
+        if (cached == null) return null;
+        if (cached.expiresAtMs() <= clock.millis()) {
+            entries.remove(username, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    public CachedPrincipal put(UserDetails user) {
+        if (entries.size() >= maxSize) {
+            makeRoom();
+        }
+        Collection<? extends GrantedAuthority> authorities = user.getAuthorities();
+        CachedPrincipal cached = new CachedPrincipal(
+                user.getUsername(),
+                user.isEnabled(),
+                List.copyOf(authorities),
+                clock.millis() + ttlMs
+        );
+        entries.put(user.getUsername(), cached);
+        return cached;
+    }
+
+    public void evict(String username) {
+        if (username != null) entries.remove(username);
+    }
+
+    public void evictAll() {
+        entries.clear();
+    }
+
+    private void makeRoom() {
+        long now = clock.millis();
+        entries.values().removeIf(e -> e.expiresAtMs() <= now);
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
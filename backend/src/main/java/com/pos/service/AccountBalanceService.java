@@ -0,0 +1,106 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.repository.AccountBalanceStripeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Striped balances for busy shared accounts (account types in {@code ledger.striped-balances.account-types},
+ * Revenue and Cash by default). Nearly every sale posts to the same Revenue and Cash accounts, so instead of
+ * updating their accounts row each posting adds its amount to one of {@code ledger.striped-balances.stripes}
+ * rows in account_balance_stripes, picked at random. Concurrent checkouts then rarely wait on one another.
+ * <p>
+ * The stripes are folded into accounts.current_balance every {@code ledger.striped-balances.fold-interval-ms};
+ * until then the real balance is current_balance plus the unfolded deltas, which {@link #currentBalances} returns.
+ */
+@Service
+@Slf4j
+public class AccountBalanceService {
+
+    private final AccountBalanceStripeRepository stripeRepository;
+    private final TransactionTemplate foldTransaction;
+    private final Set<String> stripedTypes;
+    private final int stripes;
+
+    public AccountBalanceService(
+            AccountBalanceStripeRepository stripeRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ledger.striped-balances.account-types:Revenue,Cash}") String stripedTypes,
+            @Value("${ledger.striped-balances.stripes:8}") int stripes
+    ) {
+        this.stripeRepository = stripeRepository;
+        this.foldTransaction = new TransactionTemplate(transactionManager);
+        this.foldTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.stripedTypes = Arrays.stream(stripedTypes.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.stripes = Math.max(0, stripes);
+    }
+
+    /** Whether postings to this account go to stripes instead of accounts.current_balance. */
+    public boolean isStriped(Account account) {
+        return stripes > 0 && stripedTypes.contains(account.getAccountType());
+    }
+
+    /**
+     * Adds a signed balance change (debit positive, credit negative) to a random stripe of the account.
+     * Returns the stripe's slot.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int addDelta(Integer accountId, BigDecimal delta) {
+        int slot = ThreadLocalRandom.current().nextInt(stripes);
+        stripeRepository.addDelta(accountId, slot, delta);
+        return slot;
+    }
+
+    /**
+     * Real balances (current_balance plus unfolded stripes) of the striped accounts among {@code accounts},
+     * keyed by account id. Accounts that are not striped are left out; their current_balance is already exact.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, BigDecimal> currentBalances(Collection<Account> accounts) {
+        List<Integer> ids = accounts.stream()
+                .filter(this::isStriped)
+                .map(Account::getAccountId)
+                .toList();
+        Map<Integer, BigDecimal> result = new HashMap<>();
+        if (ids.isEmpty()) return result;
+        for (Object[] row : stripeRepository.balancesWithUnfolded(ids)) {
+            result.put(((Number) row[0]).intValue(), (BigDecimal) row[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Folds every account's stripes into accounts.current_balance, one account per short transaction so a fold
+     * never holds stripe rows of two accounts at once (a posting may be waiting on one of them).
+     */
+    @Scheduled(fixedDelayString = "${ledger.striped-balances.fold-interval-ms:5000}")
+    public void foldAll() {
+        for (Integer accountId : stripeRepository.findAccountIdsWithStripes()) {
+            try {
+                foldTransaction.executeWithoutResult(status -> stripeRepository.fold(accountId));
+            } catch (RuntimeException ex) {
+                log.warn("Folding balance stripes of account {} failed, will retry: {}", accountId, ex.getMessage());
+            }
+        }
+    }
+}
@@ -7,7 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -16,17 +18,17 @@ import java.util.stream.Collectors;
 public class AccountService {
 
     private final AccountRepository accountRepository;
+    private final AccountBalanceService accountBalanceService;
 
     @Transactional(readOnly = true)
     public List<AccountSummaryDto> findAllActive() {
-        return accountRepository.findByIsActiveTrueOrderByAccountCodeAsc().stream()
-                .map(this::toSummary)
-                .collect(Collectors.toList());
+        return toSummaries(accountRepository.findByIsActiveTrueOrderByAccountCodeAsc());
     }
 
     @Transactional(readOnly = true)
     public Optional<AccountSummaryDto> findById(Integer id) {
-        return accountRepository.findById(id).map(this::toSummary);
+        return accountRepository.findById(id)
+                .map(a -> toSummary(a, accountBalanceService.currentBalances(List.of(a))));
     }
 
     @Transactional(readOnly = true)
@@ -34,19 +36,26 @@ public class AccountService {
         if (term == null || term.trim().length() < 2) {
             return findAllActive();
         }
-        return accountRepository.searchActiveByCodeOrName(term.trim()).stream()
-                .map(this::toSummary)
+        return toSummaries(accountRepository.searchActiveByCodeOrName(term.trim()));
+    }
+
+    private List<AccountSummaryDto> toSummaries(List<Account> accounts) {
+        Map<Integer, BigDecimal> striped = accountBalanceService.currentBalances(accounts);
+        return accounts.stream()
+                .map(a -> toSummary(a, striped))
                 .collect(Collectors.toList());
     }
 
-    private AccountSummaryDto toSummary(Account a) {
+    /** {@code striped}: real balances of striped accounts (see {@link AccountBalanceService#currentBalances}). */
+    private AccountSummaryDto toSummary(Account a, Map<Integer, BigDecimal> striped) {
+        BigDecimal current = striped.get(a.getAccountId());
         return AccountSummaryDto.builder()
                 .accountId(a.getAccountId())
                 .accountCode(a.getAccountCode())
                 .accountName(a.getAccountName())
                 .accountType(a.getAccountType())
-                .currentBalance(a.getCurrentBalance())
-                .balanceType(a.getBalanceType())
+                .currentBalance(current != null ? current : a.getCurrentBalance())
+                .balanceType(current != null ? (current.signum() >= 0 ? "Dr" : "Cr") : a.getBalanceType())
                 .build();
     }
 }
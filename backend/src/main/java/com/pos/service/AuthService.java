@@ -5,6 +5,7 @@ import com.pos.dto.LoginRequest;
 import com.pos.dto.LoginResponse;
 import com.pos.repository.UserRepository;
 import com.pos.security.JwtTokenProvider;
+import com.pos.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,17 +23,21 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final PrincipalCache principalCache;
 
     @Transactional(readOnly = true)
     public LoginResponse login(LoginRequest request) {
         User user = userRepository.findByUsernameAndDeletedAtIsNull(request.getUsername())
                 .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
-        if (!user.getIsActive()) {
-            throw new BadCredentialsException("User is inactive");
-        }
         if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Invalid username or password");
         }
+        // Activation or role may have changed in the database; only the user themselves (right password) refreshes it,
+        // so failed guesses cannot churn other users' cached state.
+        principalCache.evict(user.getUsername());
+        if (!user.getIsActive()) {
+            throw new BadCredentialsException("User is inactive");
+        }
         String role = user.getRole().getRoleName().toUpperCase();
         String token = tokenProvider.generateToken(user.getUsername(), role);
         Instant expiresAt = Instant.now().plusMillis(tokenProvider.getExpirationMs());
@@ -0,0 +1,50 @@
+package com.pos.service;
+
+import com.pos.service.DashboardResultCache.Key;
+import com.pos.service.DashboardResultCache.Source;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds {@link DashboardResultCache.Key}s for {@link DashboardService} methods: (fromDate, toDate, ...rest).
+ * Today/month-to-date calls without a full range are keyed by the range the service resolves them to,
+ * so a cached "today" never outlives the day.
+ */
+@Component(DashboardCacheKeyGenerator.NAME)
+public class DashboardCacheKeyGenerator implements KeyGenerator {
+
+    public static final String NAME = "dashboardKeyGenerator";
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        String name = method.getName();
+        LocalDate from = params.length > 0 && params[0] instanceof LocalDate d ? d : null;
+        LocalDate to = params.length > 1 && params[1] instanceof LocalDate d ? d : null;
+        List<Object> rest = params.length > 2 ? Arrays.asList(Arrays.copyOfRange(params, 2, params.length)) : List.of();
+
+        if (from == null || to == null) {
+            LocalDate today = LocalDate.now();
+            if ("getTodaySales".equals(name)) {
+                from = today;
+                to = today;
+            } else if ("getMonthToDate".equals(name)) {
+                from = today.withDayOfMonth(1);
+                to = today;
+            }
+        }
+        return new Key(name, from, to, rest, sourceOf(name));
+    }
+
+    private static Source sourceOf(String method) {
+        return switch (method) {
+            case "getCashFlow" -> Source.LEDGER;
+            case "getStockAlerts" -> Source.STOCK;
+            default -> Source.SALES;
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.pos.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The "dashboard" cache behind {@code @Cacheable} on {@link DashboardService}. Entries are keyed by
+ * method, date range and limit ({@link Key}, built by {@link DashboardCacheKeyGenerator}), live for
+ * {@code dashboard.cache.ttl-ms} and are capped at {@code dashboard.cache.max-size}.
+ * <p>
+ * Concurrent requests for the same key share one computation. Writers call {@link #invalidate} for the
+ * dates they touched; after the transaction commits, only entries whose range covers one of those dates
+ * (and that read the written data) are dropped, so a dashboard never shows numbers older than the last write.
+ */
+@Component
+public class DashboardResultCache implements Cache {
+
+    public static final String NAME = "dashboard";
+
+    /** Data a cached result was computed from. */
+    public enum Source { SALES, LEDGER, STOCK }
+
+    /** Cache key: method name, inclusive date range (null = open-ended), other arguments and the data read. */
+    public record Key(String method, LocalDate from, LocalDate to, List<Object> args, Source source) {
+
+        boolean covers(Source written, LocalDate date) {
+            if (source != written) return false;
+            if (date == null) return true;
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+    }
+
+    private record Entry(CompletableFuture<Object> value, long expiresAtMs) {
+        boolean usable(long now) {
+            return expiresAtMs > now && !value.isCompletedExceptionally() && !value.isCancelled();
+        }
+    }
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxSize;
+
+    public DashboardResultCache(
+            @Value("${dashboard.cache.ttl-ms:60000}") long ttlMs,
+            @Value("${dashboard.cache.max-size:200}") int maxSize
+    ) {
+        this.ttlMs = ttlMs;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Drops cached results computed from {@code source} whose range includes any of {@code dates}
+     * (a null date drops every result of that source). Runs after commit when called in a transaction.
+     */
+    public void invalidate(Source source, LocalDate... dates) {
+        Runnable evict = () -> entries.keySet().removeIf(k -> {
+            if (!(k instanceof Key key)) return false;
+            for (LocalDate d : dates) {
+                if (key.covers(source, d)) return true;
+            }
+            return false;
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry e = entries.get(key);
+        if (e == null || !e.usable(System.currentTimeMillis()) || !e.value().isDone()) return null;
+        return new SimpleValueWrapper(e.value().join());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper w = get(key);
+        return w != null ? (T) w.get() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long now = System.currentTimeMillis();
+        Entry current = entries.get(key);
+        if (current == null || !current.usable(now)) {
+            Entry fresh = new Entry(new CompletableFuture<>(), now + ttlMs);
+            if (current == null && entries.size() >= maxSize) {
+                makeRoom(now);
+            }
+            current = entries.compute(key, (k, e) -> e == null || !e.usable(now) ? fresh : e);
+            if (current == fresh) {
+                try {
+                    fresh.value().complete(valueLoader.call());
+                } catch (Exception ex) {
+                    fresh.value().completeExceptionally(ex);
+                    entries.remove(key, fresh);
+                    throw new ValueRetrievalException(key, valueLoader, ex);
+                }
+            }
+        }
+        try {
+            return (T) current.value().get();
+        } catch (ExecutionException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        if (!entries.containsKey(key) && entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(key, new Entry(CompletableFuture.completedFuture(value), now + ttlMs));
+    }
+
+    @Override
+    public void evict(Object key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    private void makeRoom(long now) {
+        entries.values().removeIf(e -> e.expiresAtMs() <= now);
+        Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            Map.Entry<Object, Entry> e = it.next();
+            if (e.getValue().value().isDone()) it.remove();
+        }
+    }
+}
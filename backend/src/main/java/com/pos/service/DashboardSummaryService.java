@@ -0,0 +1,103 @@
+package com.pos.service;
+
+import com.pos.dto.dashboard.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Builds the whole dashboard in one call. Each KPI runs through {@link DashboardService} (its own read-only
+ * transaction) on a virtual thread, so the response takes as long as the slowest query rather than the sum.
+ * A shared semaphore ({@code dashboard.summary.max-concurrent-queries}) caps how many pooled connections
+ * dashboard queries hold at once across all requests, leaving the rest of the pool for checkout.
+ */
+@Service
+@Slf4j
+public class DashboardSummaryService {
+
+    private final DashboardService dashboardService;
+    private final Semaphore connections;
+
+    public DashboardSummaryService(
+            DashboardService dashboardService,
+            @Value("${dashboard.summary.max-concurrent-queries:4}") int maxConcurrentQueries
+    ) {
+        this.dashboardService = dashboardService;
+        this.connections = new Semaphore(Math.max(1, maxConcurrentQueries), true);
+    }
+
+    /**
+     * @param today    day for the today-sales card (null = server date)
+     * @param fromDate range for every other KPI (null = each KPI's own default, as on the single endpoints)
+     * @param limit    rows for best-selling products and top customers
+     */
+    public DashboardSummaryDto getSummary(LocalDate today, LocalDate fromDate, LocalDate toDate, int limit) {
+        LocalDate day = today != null ? today : LocalDate.now();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                Future<TodaySalesDto> todaySales = submit(executor, () -> dashboardService.getTodaySales(day, day));
+                Future<MonthToDateDto> monthToDate = submit(executor, () -> dashboardService.getMonthToDate(fromDate, toDate));
+                Future<ProfitDto> profit = submit(executor, () -> dashboardService.getProfit(fromDate, toDate));
+                Future<SalesTrendDto> salesTrend = submit(executor, () -> dashboardService.getSalesTrend(fromDate, toDate));
+                Future<List<BestSellingProductDto>> bestSelling = submit(executor, () -> dashboardService.getBestSellingProducts(fromDate, toDate, limit));
+                Future<List<TopCustomerDto>> topCustomers = submit(executor, () -> dashboardService.getTopCustomers(fromDate, toDate, limit));
+                Future<CashFlowDto> cashFlow = submit(executor, () -> dashboardService.getCashFlow(fromDate, toDate));
+                Future<List<StockAlertDto>> stockAlerts = submit(executor, dashboardService::getStockAlerts);
+                Future<CashCreditRatioDto> cashCredit = submit(executor, () -> dashboardService.getCashCreditRatio(fromDate, toDate));
+
+                DashboardSummaryDto summary = DashboardSummaryDto.builder()
+                        .todaySales(join(todaySales))
+                        .monthToDate(join(monthToDate))
+                        .profit(join(profit))
+                        .salesTrend(join(salesTrend))
+                        .bestSellingProducts(join(bestSelling))
+                        .topCustomers(join(topCustomers))
+                        .cashFlow(join(cashFlow))
+                        .stockAlerts(join(stockAlerts))
+                        .cashCreditRatio(join(cashCredit))
+                        .build();
+                log.debug("Dashboard summary {}..{} built in {} ms", fromDate, toDate, (System.nanoTime() - start) / 1_000_000);
+                return summary;
+            } catch (RuntimeException e) {
+                // Don't leave the remaining queries holding connections for a response that will not be sent.
+                executor.shutdownNow();
+                throw e;
+            }
+        }
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> query) {
+        return executor.submit(() -> {
+            connections.acquire();
+            try {
+                return query.call();
+            } finally {
+                connections.release();
+            }
+        });
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException("Dashboard query failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building dashboard summary", e);
+        }
+    }
+}
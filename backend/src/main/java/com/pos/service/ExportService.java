@@ -0,0 +1,179 @@
+package com.pos.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.exception.BadRequestException;
+import com.pos.repository.LedgerEntryRepository;
+import com.pos.repository.SalesInvoiceRepository;
+import com.pos.repository.StockTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Full-history exports of invoices, ledger entries and stock movements as CSV or NDJSON. Rows are read from a
+ * forward-only database cursor (fetch size 1000) and written straight to the output, so memory use does not
+ * depend on how many rows are exported and no COUNT or OFFSET query is run.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    static final List<String> INVOICE_COLUMNS = List.of(
+            "salesInvoiceId", "invoiceNumber", "invoiceDate", "invoiceTime", "invoiceStatus", "transactionType",
+            "branchId", "customerId", "customerName", "isCashCustomer", "grandTotal", "additionalDiscount",
+            "additionalExpenses", "netTotal", "amountReceived", "changeReturned", "createdBy");
+
+    static final List<String> LEDGER_COLUMNS = List.of(
+            "ledgerEntryId", "voucherNo", "transactionDate", "accountId", "accountCode", "accountName",
+            "description", "debitAmount", "creditAmount", "refType", "refId");
+
+    static final List<String> STOCK_COLUMNS = List.of(
+            "stockTransactionItemId", "stockTransactionId", "recordNo", "transactionDate", "transactionType",
+            "branchId", "productId", "productCode", "productName", "quantityChange", "priceAtTransaction",
+            "description", "refSalesInvoiceId");
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final int ALL = -1;
+
+    private final SalesInvoiceRepository salesInvoiceRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) return CSV;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Unsupported export format: " + value + ". Use csv or ndjson.");
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportInvoices(LocalDate fromDate, LocalDate toDate, Integer customerId, Format format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = salesInvoiceRepository.streamForExport(from(fromDate), to(toDate), orAll(customerId))) {
+            write(rows, INVOICE_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportLedgerEntries(LocalDate fromDate, LocalDate toDate, Integer accountId, Format format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = ledgerEntryRepository.streamForExport(from(fromDate), to(toDate), orAll(accountId))) {
+            write(rows, LEDGER_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportStockMovements(LocalDate fromDate, LocalDate toDate, Integer productId, Format format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = stockTransactionRepository.streamForExport(from(fromDate), to(toDate), orAll(productId))) {
+            write(rows, STOCK_COLUMNS, format, out);
+        }
+    }
+
+    private void write(Stream<Object[]> rows, List<String> columns, Format format, OutputStream out) throws IOException {
+        Iterator<Object[]> it = rows.iterator();
+        if (format == Format.NDJSON) {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Objects are separated by the newline written below, not by the default root separator (a space)
+                gen.setRootValueSeparator(null);
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    gen.writeStartObject();
+                    for (int i = 0; i < columns.size(); i++) {
+                        gen.writeFieldName(columns.get(i));
+                        writeJsonValue(gen, row[i]);
+                    }
+                    gen.writeEndObject();
+                    gen.writeRaw('\n');
+                }
+            }
+            return;
+        }
+        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        w.write(String.join(",", columns));
+        w.write("\r\n");
+        while (it.hasNext()) {
+            Object[] row = it.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) w.write(',');
+                w.write(csvValue(row[i]));
+            }
+            w.write("\r\n");
+        }
+        w.flush();
+    }
+
+    private static void writeJsonValue(JsonGenerator gen, Object v) throws IOException {
+        if (v == null) gen.writeNull();
+        else if (v instanceof BigDecimal d) gen.writeNumber(d);
+        else if (v instanceof Number n) gen.writeNumber(n.longValue());
+        else if (v instanceof Boolean b) gen.writeBoolean(b);
+        else gen.writeString(text(v));
+    }
+
+    static String csvValue(Object v) {
+        if (v == null) return "";
+        String s = text(v);
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+
+    /** ISO text for dates and times as returned by the driver; toString for everything else. */
+    private static String text(Object v) {
+        if (v instanceof java.sql.Date d) return d.toLocalDate().toString();
+        if (v instanceof java.sql.Time t) return t.toLocalTime().toString();
+        if (v instanceof java.sql.Timestamp t) return t.toInstant().toString();
+        if (v instanceof BigDecimal d) return d.toPlainString();
+        return v.toString();
+    }
+
+    private static LocalDate from(LocalDate d) {
+        return d != null ? d : MIN_DATE;
+    }
+
+    private static LocalDate to(LocalDate d) {
+        return d != null ? d : MAX_DATE;
+    }
+
+    private static int orAll(Integer id) {
+        return id != null ? id : ALL;
+    }
+}
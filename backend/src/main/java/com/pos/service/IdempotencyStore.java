@@ -0,0 +1,103 @@
+package com.pos.service;
+
+import com.pos.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Results of write requests sent with an {@code Idempotency-Key} header, so a till that retries after a dropped
+ * connection gets the original response back instead of a second sale or stock movement. Keys are scoped to the
+ * endpoint and user; a key reused with a different request body is rejected. Completed results live for
+ * {@code idempotency.ttl-ms}, at most {@code idempotency.max-size} of them.
+ * <p>
+ * A retry that arrives while the first request is still running waits for it and gets the same result.
+ * Failed requests are not stored (nothing was committed), so they can be retried with the same key.
+ * Results are held in memory by this backend instance.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 100;
+
+    private record Entry(CompletableFuture<Object> result, int fingerprint, long expiresAtMs) {
+        boolean expired(long now) {
+            return result.isDone() && expiresAtMs <= now;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxSize;
+
+    public IdempotencyStore(
+            @Value("${idempotency.ttl-ms:600000}") long ttlMs,
+            @Value("${idempotency.max-size:10000}") int maxSize
+    ) {
+        this.ttlMs = ttlMs;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Runs {@code action} once per (scope, username, key) and returns its result; repeats return the stored
+     * result without running it. Without a key the action simply runs.
+     *
+     * @param request the request body (or other input); its {@code hashCode} tells a retry from a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String username, String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String storeKey = scope + '|' + username + '|' + key;
+        int fingerprint = request != null ? request.hashCode() : 0;
+        long now = System.currentTimeMillis();
+
+        Entry fresh = new Entry(new CompletableFuture<>(), fingerprint, Long.MAX_VALUE);
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        Entry current = entries.compute(storeKey, (k, e) -> e == null || e.expired(now) ? fresh : e);
+        if (current.fingerprint() != fingerprint) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+        if (current == fresh) {
+            try {
+                T result = action.get();
+                entries.replace(storeKey, fresh, new Entry(fresh.result(), fingerprint, System.currentTimeMillis() + ttlMs));
+                fresh.result().complete(result);
+                return result;
+            } catch (RuntimeException ex) {
+                entries.remove(storeKey, fresh);
+                fresh.result().completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return (T) current.result().get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", ex);
+        }
+    }
+
+    private void makeRoom(long now) {
+        entries.values().removeIf(e -> e.expired(now));
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            if (it.next().result().isDone()) it.remove();
+        }
+    }
+}
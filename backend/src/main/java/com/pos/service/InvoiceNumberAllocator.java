@@ -0,0 +1,182 @@
+package com.pos.service;
+
+import com.pos.domain.InvoiceNumberCounter;
+import com.pos.domain.InvoiceNumberCounterId;
+import com.pos.repository.InvoiceNumberCounterRepository;
+import com.pos.repository.SalesInvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out invoice numbers INV-YYYYMMDD-NNNN (INV-YYYYMMDD-{branchId}-NNNN when a branch is given).
+ * Numbers are reserved from invoice_number_counters in blocks in a separate short transaction and
+ * then handed out from memory without locking, so concurrent tills never receive the same number.
+ * Numbers left in a block at shutdown are skipped; gaps are expected, duplicates are not possible.
+ * <p>
+ * Reserving a block takes its own connection, so {@link #next} is meant to be called outside any transaction
+ * (checkout allocates before it opens its own). Inside a transaction use {@link #nextReserved}, which only
+ * hands out numbers already in memory. A (branch, day) whose block has not been used for
+ * {@code invoice-number.idle-evict-ms} is dropped from memory when another one is opened; its remaining
+ * numbers are skipped.
+ */
+@Service
+@Slf4j
+public class InvoiceNumberAllocator {
+
+    private static final int NO_BRANCH = 0;
+
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final SalesInvoiceRepository salesInvoiceRepository;
+    private final TransactionTemplate requiresNew;
+    private final int blockSize;
+    private final long idleEvictMs;
+    private final ConcurrentHashMap<InvoiceNumberCounterId, Slot> slots = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(
+            InvoiceNumberCounterRepository counterRepository,
+            SalesInvoiceRepository salesInvoiceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${invoice-number.block-size:20}") int blockSize,
+            @Value("${invoice-number.idle-evict-ms:600000}") long idleEvictMs
+    ) {
+        this.counterRepository = counterRepository;
+        this.salesInvoiceRepository = salesInvoiceRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+        this.idleEvictMs = Math.max(0, idleEvictMs);
+    }
+
+    /**
+     * Allocates the next invoice number for the branch (may be null) and date (null = today), reserving a new
+     * block in a transaction of its own when the one in memory is used up. Call outside a transaction.
+     */
+    public String next(Integer branchId, LocalDate date) {
+        InvoiceNumberCounterId key = key(branchId, date);
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            evictIdle();
+            slot = slots.computeIfAbsent(key, k -> new Slot());
+        }
+        slot.lastUsedMs = System.currentTimeMillis();
+        Block current = slot.block.get();
+        if (current != null) {
+            long seq = current.take();
+            if (seq >= 0) return format(key, seq);
+        }
+        Block fresh = reserveBlock(key);
+        long seq = fresh.take();
+        // If another thread installed a block first, the rest of ours is simply skipped.
+        slot.block.compareAndSet(current, fresh);
+        return format(key, seq);
+    }
+
+    /** Like {@link #next}, but never touches the database: null when no reserved number is left in memory. */
+    public String nextReserved(Integer branchId, LocalDate date) {
+        InvoiceNumberCounterId key = key(branchId, date);
+        Slot slot = slots.get(key);
+        Block current = slot != null ? slot.block.get() : null;
+        long seq = current != null ? current.take() : -1;
+        if (seq < 0) return null;
+        slot.lastUsedMs = System.currentTimeMillis();
+        return format(key, seq);
+    }
+
+    /**
+     * The number {@link #next} would most likely hand out, without using it up. Only a preview for the till:
+     * another till may take it first, so the number to print is the one on the saved invoice.
+     */
+    public String peek(Integer branchId, LocalDate date) {
+        InvoiceNumberCounterId key = key(branchId, date);
+        Slot slot = slots.get(key);
+        Block current = slot != null ? slot.block.get() : null;
+        long seq = current != null ? current.peek() : -1;
+        if (seq < 0) {
+            seq = counterRepository.findById(key)
+                    .map(InvoiceNumberCounter::getNextValue)
+                    .orElseGet(() -> {
+                        Integer last = salesInvoiceRepository.maxSequenceForPrefix(prefix(key));
+                        return (last != null ? last : 0) + 1;
+                    });
+        }
+        return format(key, seq);
+    }
+
+    private static InvoiceNumberCounterId key(Integer branchId, LocalDate date) {
+        return new InvoiceNumberCounterId(branchId != null ? branchId : NO_BRANCH, date != null ? date : LocalDate.now());
+    }
+
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleEvictMs;
+        slots.values().removeIf(slot -> slot.lastUsedMs <= idleSince);
+    }
+
+    private Block reserveBlock(InvoiceNumberCounterId key) {
+        Block block = requiresNew.execute(status -> {
+            InvoiceNumberCounter counter = counterRepository.findForUpdate(key.getBranchId(), key.getBusinessDate())
+                    .orElse(null);
+            if (counter == null) {
+                Integer last = salesInvoiceRepository.maxSequenceForPrefix(prefix(key));
+                counterRepository.insertIfAbsent(key.getBranchId(), key.getBusinessDate(), (last != null ? last : 0) + 1);
+                counter = counterRepository.findForUpdate(key.getBranchId(), key.getBusinessDate())
+                        .orElseThrow(() -> new IllegalStateException("Invoice number counter missing for " + key.getBusinessDate()));
+            }
+            int start = counter.getNextValue();
+            counter.setNextValue(start + blockSize);
+            counterRepository.save(counter);
+            return new Block(start, start + blockSize);
+        });
+        log.debug("Reserved invoice numbers {}..{} for branch {} on {}", block.cursor.get(), block.end - 1, key.getBranchId(), key.getBusinessDate());
+        return block;
+    }
+
+    private static String prefix(InvoiceNumberCounterId key) {
+        String dateStr = key.getBusinessDate().format(DateTimeFormatter.BASIC_ISO_DATE);
+        return key.getBranchId() == NO_BRANCH
+                ? "INV-" + dateStr + "-"
+                : "INV-" + dateStr + "-" + key.getBranchId() + "-";
+    }
+
+    private static String format(InvoiceNumberCounterId key, long seq) {
+        return prefix(key) + String.format("%04d", seq);
+    }
+
+    /** The current block of one (branch, day) and when a number was last taken from it. */
+    private static final class Slot {
+        private final AtomicReference<Block> block = new AtomicReference<>();
+        private volatile long lastUsedMs = System.currentTimeMillis();
+    }
+
+    /** Half-open range [cursor, end) of reserved sequence values. */
+    private static final class Block {
+        private final AtomicLong cursor;
+        private final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+
+        /** The value {@link #take} would return next, or -1 if the block is used up. */
+        long peek() {
+            long n = cursor.get();
+            return n < end ? n : -1;
+        }
+
+        /** Next value from this block, or -1 once it is used up. */
+        long take() {
+            long n = cursor.getAndIncrement();
+            return n < end ? n : -1;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pos.service;
+
+import com.pos.dto.CursorPage;
+import com.pos.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a list ordered by (date, id), handed to clients as an opaque string. The next page is
+ * "rows after this position", which the database answers from an index without counting or skipping rows.
+ */
+public record KeysetCursor(LocalDate date, long id) {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor from {@link #encode()}; null or blank means "from the start". Ids are int columns, so an id
+     * outside the int range is rejected rather than truncated by the callers' casts.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException(raw);
+            return new KeysetCursor(LocalDate.parse(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /** Page size for keyset listings: the default when not positive, capped like offset pages. */
+    public static int pageSize(int size) {
+        return size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Maps rows fetched with a limit of {@code size + 1} to a page of at most {@code size}. The extra row only
+     * shows that there is a next page; the cursor points at the last row returned.
+     */
+    public static <E, T> CursorPage<T> page(List<E> rows, int size, Function<E, KeysetCursor> position, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<T> content = new ArrayList<>(pageRows.size());
+        for (E row : pageRows) {
+            content.add(mapper.apply(row));
+        }
+        return CursorPage.<T>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasNext ? position.apply(pageRows.get(pageRows.size() - 1)).encode() : null)
+                .build();
+    }
+}
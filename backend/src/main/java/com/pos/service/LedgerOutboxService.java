@@ -0,0 +1,240 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.exception.BadRequestException;
+import com.pos.exception.ResourceNotFoundException;
+import com.pos.repository.AccountRepository;
+import com.pos.repository.LedgerEntryRepository;
+import com.pos.repository.LedgerOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger postings that do not have to happen inside the caller's transaction. {@link #enqueue} records the
+ * vouchers in ledger_outbox as part of the caller's transaction; after it commits, worker threads (virtual threads,
+ * {@code ledger.outbox.workers}) post pending rows in batches of {@code ledger.outbox.batch-size} with
+ * {@link LedgerService#postBatch} and delete them in the same transaction. A voucher number that already has ledger
+ * entries is dropped instead of posted again, so a voucher is posted at most once.
+ * <p>
+ * If a batch fails, its rows are retried one by one; a row that keeps failing is left in the table after
+ * {@code ledger.outbox.max-attempts} with the last error and is counted by the {@code pos.ledger.outbox.failed}
+ * gauge. With {@code ledger.outbox.enabled=false} vouchers are posted immediately, as before.
+ */
+@Service
+@Slf4j
+public class LedgerOutboxService {
+
+    private final LedgerOutboxRepository outboxRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate workerTransaction;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final int workers;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public LedgerOutboxService(
+            LedgerOutboxRepository outboxRepository,
+            LedgerEntryRepository ledgerEntryRepository,
+            AccountRepository accountRepository,
+            LedgerService ledgerService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${ledger.outbox.enabled:true}") boolean enabled,
+            @Value("${ledger.outbox.batch-size:100}") int batchSize,
+            @Value("${ledger.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${ledger.outbox.poll-interval-ms:2000}") long pollIntervalMs,
+            @Value("${ledger.outbox.workers:1}") int workers
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+        this.workerTransaction = new TransactionTemplate(transactionManager);
+        this.workerTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.pollIntervalMs = Math.max(100, pollIntervalMs);
+        this.workers = Math.max(1, workers);
+        if (enabled) {
+            Gauge.builder("pos.ledger.outbox.failed", outboxRepository, r -> r.countFailed(this.maxAttempts))
+                    .description("Ledger outbox rows left unposted after ledger.outbox.max-attempts")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues two-line vouchers for posting once the current transaction commits. A voucher number that is already
+     * queued is ignored. The vouchers' accounts are checked here, so a sale against a missing or inactive account
+     * fails at the till instead of in the worker.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<LedgerService.Voucher> vouchers) {
+        if (vouchers.isEmpty()) return;
+        if (!enabled) {
+            ledgerService.postBatch(vouchers);
+            return;
+        }
+        Set<Integer> accountIds = new HashSet<>();
+        for (LedgerService.Voucher v : vouchers) {
+            if (v.lines().size() != 2) {
+                throw new IllegalArgumentException("Only two-line vouchers can be queued: " + v.voucherNo());
+            }
+            v.lines().forEach(l -> accountIds.add(l.accountId()));
+        }
+        requireActiveAccounts(accountIds);
+        for (LedgerService.Voucher v : vouchers) {
+            LedgerService.Line first = v.lines().get(0);
+            LedgerService.Line second = v.lines().get(1);
+            LedgerService.Line debit = first.debit() != null && first.debit().signum() > 0 ? first : second;
+            LedgerService.Line credit = debit == first ? second : first;
+            outboxRepository.enqueue(v.voucherNo(), v.date(), v.description(), debit.accountId(), credit.accountId(),
+                    debit.debit(), v.refType(), v.refId(), v.userId());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal();
+            }
+        });
+    }
+
+    private void requireActiveAccounts(Set<Integer> accountIds) {
+        Map<Integer, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(accountIds).forEach(a -> accounts.put(a.getAccountId(), a));
+        for (Integer id : accountIds) {
+            Account a = accounts.get(id);
+            if (a == null) throw new ResourceNotFoundException("Account", id);
+            if (!a.getIsActive()) throw new BadRequestException("Account is inactive");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("ledger-outbox-" + i).start(this::run));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release(threads.size());
+        for (Thread t : threads) {
+            t.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void signal() {
+        if (wakeUp.availablePermits() < workers) wakeUp.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (drainOnce() < batchSize) {
+                    wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Ledger outbox worker failed, retrying in {} ms: {}", pollIntervalMs, ex.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Posts one batch of pending vouchers; returns how many rows were taken. */
+    int drainOnce() {
+        try {
+            Integer taken = workerTransaction.execute(status -> post(outboxRepository.claim(maxAttempts, batchSize)));
+            return taken != null ? taken : 0;
+        } catch (RuntimeException ex) {
+            log.warn("Posting a batch of ledger vouchers failed, retrying one by one: {}", ex.getMessage());
+        }
+        List<Long> ids = outboxRepository.findPendingIds(maxAttempts, batchSize);
+        for (Long id : ids) {
+            try {
+                workerTransaction.executeWithoutResult(status -> post(outboxRepository.claimById(id, maxAttempts)));
+            } catch (RuntimeException ex) {
+                log.error("Ledger outbox row {} could not be posted: {}", id, ex.getMessage());
+                workerTransaction.executeWithoutResult(status -> outboxRepository.recordFailure(id, String.valueOf(ex.getMessage())));
+            }
+        }
+        return ids.size();
+    }
+
+    private int post(List<Object[]> rows) {
+        if (rows.isEmpty()) return 0;
+        Set<String> voucherNos = new HashSet<>();
+        rows.forEach(r -> voucherNos.add((String) r[1]));
+        Set<String> alreadyPosted = new HashSet<>(ledgerEntryRepository.findExistingVoucherNos(voucherNos));
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<LedgerService.Voucher> vouchers = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            ids.add(((Number) r[0]).longValue());
+            String voucherNo = (String) r[1];
+            if (alreadyPosted.contains(voucherNo)) {
+                log.debug("Voucher {} is already in the ledger, dropping it from the outbox", voucherNo);
+                continue;
+            }
+            vouchers.add(LedgerService.Voucher.pair(
+                    voucherNo,
+                    toLocalDate(r[2]),
+                    (String) r[3],
+                    ((Number) r[4]).intValue(),
+                    ((Number) r[5]).intValue(),
+                    (BigDecimal) r[6],
+                    (String) r[7],
+                    r[8] != null ? ((Number) r[8]).longValue() : null,
+                    r[9] != null ? ((Number) r[9]).intValue() : null));
+        }
+        ledgerService.postBatch(vouchers);
+        outboxRepository.deletePosted(ids);
+        return rows.size();
+    }
+
+    private static LocalDate toLocalDate(Object o) {
+        if (o instanceof LocalDate d) return d;
+        if (o instanceof java.sql.Date d) return d.toLocalDate();
+        return null;
+    }
+}
@@ -4,26 +4,41 @@ import com.pos.domain.Account;
 import com.pos.domain.LedgerEntry;
 import com.pos.domain.User;
 import com.pos.dto.AccountSummaryDto;
+import com.pos.dto.CursorPage;
 import com.pos.dto.LedgerEntryRowDto;
 import com.pos.dto.LedgerReportDto;
 import com.pos.dto.LedgerEntryDto;
 import com.pos.dto.TrialBalanceDto;
 import com.pos.exception.BadRequestException;
 import com.pos.exception.ResourceNotFoundException;
+import com.pos.repository.AccountPeriodBalanceRepository;
 import com.pos.repository.AccountRepository;
 import com.pos.repository.LedgerEntryRepository;
 import com.pos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +48,9 @@ public class LedgerService {
     private final LedgerEntryRepository ledgerEntryRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final DashboardResultCache dashboardResultCache;
 
     @Transactional(readOnly = true)
     public Integer getUserIdByUsername(String username) {
@@ -42,7 +60,7 @@ public class LedgerService {
     }
 
     /**
-     * Centralized double-entry posting. Creates Dr and Cr ledger entries and updates both account balances.
+     * Centralized double-entry posting of one Dr/Cr pair; see {@link #postBatch}.
      */
     @Transactional(rollbackFor = Exception.class)
     public void post(
@@ -56,59 +74,155 @@ public class LedgerService {
             Long refId,
             Integer userId
     ) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Amount must be positive");
+        postBatch(List.of(Voucher.pair(voucherNo, date, description, debitAccountId, creditAccountId, amount, refType, refId, userId)));
+    }
+
+    /**
+     * Posts several vouchers in one go. Every voucher must balance (total Dr = total Cr) and is rejected as a whole
+     * before anything is written. All accounts and users are loaded with one query each, all entries are written
+     * with one JDBC batch, and each account's balance and monthly totals are changed once with the net of all its
+     * lines. Balances of striped accounts (see {@link AccountBalanceService}) go to a stripe row instead of the
+     * accounts row, and their monthly totals to the same slot.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void postBatch(List<Voucher> vouchers) {
+        if (vouchers == null || vouchers.isEmpty()) return;
+        vouchers.forEach(LedgerService::validate);
+
+        Set<Integer> accountIds = new TreeSet<>();
+        Set<Integer> userIds = new HashSet<>();
+        for (Voucher v : vouchers) {
+            v.lines().forEach(l -> accountIds.add(l.accountId()));
+            if (v.userId() != null) userIds.add(v.userId());
         }
-        if (debitAccountId == null || creditAccountId == null) {
-            throw new BadRequestException("Debit and credit accounts are required");
+        Map<Integer, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(accountIds).forEach(a -> accounts.put(a.getAccountId(), a));
+        for (Integer id : accountIds) {
+            Account a = accounts.get(id);
+            if (a == null) throw new ResourceNotFoundException("Account", id);
+            if (!a.getIsActive()) throw new BadRequestException("Account is inactive");
         }
-        if (debitAccountId.equals(creditAccountId)) {
-            throw new BadRequestException("Debit and credit accounts must be different");
+        Map<Integer, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(u -> users.put(u.getUserId(), u));
         }
 
-        Account debitAccount = accountRepository.findById(debitAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", debitAccountId));
-        Account creditAccount = accountRepository.findById(creditAccountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", creditAccountId));
-        if (!debitAccount.getIsActive() || !creditAccount.getIsActive()) {
-            throw new BadRequestException("Account is inactive");
+        List<LedgerEntry> entries = new ArrayList<>();
+        Map<Integer, BigDecimal> netByAccount = new TreeMap<>();
+        Map<PeriodKey, BigDecimal[]> movements = new TreeMap<>(PeriodKey.ORDER);
+        Set<LocalDate> dates = new HashSet<>();
+        for (Voucher v : vouchers) {
+            dates.add(v.date());
+            for (Line l : v.lines()) {
+                BigDecimal debit = nz(l.debit());
+                BigDecimal credit = nz(l.credit());
+                entries.add(LedgerEntry.builder()
+                        .voucherNo(v.voucherNo())
+                        .account(accounts.get(l.accountId()))
+                        .transactionDate(v.date())
+                        .description(v.description())
+                        .debitAmount(debit)
+                        .creditAmount(credit)
+                        .refType(v.refType())
+                        .refId(v.refId())
+                        .createdBy(v.userId() != null ? users.get(v.userId()) : null)
+                        .build());
+                netByAccount.merge(l.accountId(), debit.subtract(credit), BigDecimal::add);
+                BigDecimal[] m = movements.computeIfAbsent(new PeriodKey(l.accountId(), v.date().withDayOfMonth(1)),
+                        k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                m[0] = m[0].add(debit);
+                m[1] = m[1].add(credit);
+            }
         }
+        ledgerEntryRepository.insertAll(entries);
 
-        User createdBy = userId != null ? userRepository.findById(userId).orElse(null) : null;
+        Map<Integer, Integer> slots = new HashMap<>();
+        netByAccount.forEach((accountId, net) -> {
+            if (net.signum() == 0) return;
+            Account account = accounts.get(accountId);
+            if (accountBalanceService.isStriped(account)) {
+                slots.put(accountId, accountBalanceService.addDelta(accountId, net));
+            } else {
+                account.setCurrentBalance(account.getCurrentBalance().add(net));
+                account.setBalanceType(balanceType(account.getCurrentBalance()));
+                accountRepository.save(account);
+            }
+        });
+        movements.forEach((key, m) -> accountPeriodBalanceRepository.addMovement(
+                key.accountId(), key.periodStart(), slots.getOrDefault(key.accountId(), 0), m[0], m[1]));
 
-        LedgerEntry drEntry = LedgerEntry.builder()
-                .voucherNo(voucherNo)
-                .account(debitAccount)
-                .transactionDate(date)
-                .description(description)
-                .debitAmount(amount)
-                .creditAmount(BigDecimal.ZERO)
-                .refType(refType)
-                .refId(refId)
-                .createdBy(createdBy)
-                .build();
-        ledgerEntryRepository.save(drEntry);
+        dashboardResultCache.invalidate(DashboardResultCache.Source.LEDGER, dates.toArray(LocalDate[]::new));
+    }
 
-        LedgerEntry crEntry = LedgerEntry.builder()
-                .voucherNo(voucherNo)
-                .account(creditAccount)
-                .transactionDate(date)
-                .description(description)
-                .debitAmount(BigDecimal.ZERO)
-                .creditAmount(amount)
-                .refType(refType)
-                .refId(refId)
-                .createdBy(createdBy)
-                .build();
-        ledgerEntryRepository.save(crEntry);
+    private static void validate(Voucher v) {
+        if (v.voucherNo() == null || v.voucherNo().isBlank() || v.date() == null) {
+            throw new BadRequestException("Voucher number and date are required");
+        }
+        if (v.lines() == null || v.lines().size() < 2) {
+            throw new BadRequestException("Voucher " + v.voucherNo() + " needs at least one debit and one credit line");
+        }
+        BigDecimal totalDr = BigDecimal.ZERO;
+        BigDecimal totalCr = BigDecimal.ZERO;
+        Set<Integer> debited = new HashSet<>();
+        Set<Integer> credited = new HashSet<>();
+        for (Line l : v.lines()) {
+            if (l.accountId() == null) {
+                throw new BadRequestException("Debit and credit accounts are required");
+            }
+            BigDecimal debit = nz(l.debit());
+            BigDecimal credit = nz(l.credit());
+            if (debit.signum() < 0 || credit.signum() < 0 || (debit.signum() > 0) == (credit.signum() > 0)) {
+                throw new BadRequestException("Amount must be positive");
+            }
+            if (debit.signum() > 0) debited.add(l.accountId());
+            else credited.add(l.accountId());
+            totalDr = totalDr.add(debit);
+            totalCr = totalCr.add(credit);
+        }
+        if (debited.isEmpty() || credited.isEmpty()) {
+            throw new BadRequestException("Voucher " + v.voucherNo() + " needs at least one debit and one credit line");
+        }
+        if (!Collections.disjoint(debited, credited)) {
+            throw new BadRequestException("Debit and credit accounts must be different");
+        }
+        if (totalDr.compareTo(totalCr) != 0) {
+            throw new BadRequestException("Voucher " + v.voucherNo() + " does not balance: Dr " + totalDr + ", Cr " + totalCr);
+        }
+    }
 
-        debitAccount.setCurrentBalance(debitAccount.getCurrentBalance().add(amount));
-        debitAccount.setBalanceType("Dr");
-        accountRepository.save(debitAccount);
+    /** A journal voucher: lines sharing one voucher number, date, description, reference and user. */
+    public record Voucher(
+            String voucherNo,
+            LocalDate date,
+            String description,
+            List<Line> lines,
+            String refType,
+            Long refId,
+            Integer userId
+    ) {
+        /** The usual two-line voucher: {@code amount} Dr to one account, Cr to the other. */
+        public static Voucher pair(String voucherNo, LocalDate date, String description, Integer debitAccountId,
+                                   Integer creditAccountId, BigDecimal amount, String refType, Long refId, Integer userId) {
+            return new Voucher(voucherNo, date, description,
+                    List.of(Line.debit(debitAccountId, amount), Line.credit(creditAccountId, amount)),
+                    refType, refId, userId);
+        }
+    }
+
+    /** One side of a voucher; exactly one of debit/credit is positive. */
+    public record Line(Integer accountId, BigDecimal debit, BigDecimal credit) {
+        public static Line debit(Integer accountId, BigDecimal amount) {
+            return new Line(accountId, amount, BigDecimal.ZERO);
+        }
 
-        creditAccount.setCurrentBalance(creditAccount.getCurrentBalance().subtract(amount));
-        creditAccount.setBalanceType(creditAccount.getCurrentBalance().compareTo(BigDecimal.ZERO) >= 0 ? "Dr" : "Cr");
-        accountRepository.save(creditAccount);
+        public static Line credit(Integer accountId, BigDecimal amount) {
+            return new Line(accountId, BigDecimal.ZERO, amount);
+        }
+    }
+
+    private record PeriodKey(int accountId, LocalDate periodStart) {
+        static final Comparator<PeriodKey> ORDER = Comparator.comparingInt(PeriodKey::accountId)
+                .thenComparing(PeriodKey::periodStart);
     }
 
     @Transactional(readOnly = true)
@@ -121,6 +235,20 @@ public class LedgerService {
         return page.map(this::toDto);
     }
 
+    /** Entries by keyset in posting order; pass the previous page's {@code nextCursor} as {@code cursor}. No count query. */
+    @Transactional(readOnly = true)
+    public CursorPage<LedgerEntryDto> scrollEntries(LocalDate fromDate, LocalDate toDate, Integer accountId, String cursor, int size) {
+        int limit = KeysetCursor.pageSize(size);
+        LocalDate from = fromDate != null ? fromDate : LocalDate.of(1900, 1, 1);
+        LocalDate to = toDate != null ? toDate : LocalDate.of(9999, 12, 31);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<LedgerEntry> rows = ledgerEntryRepository.findPageAfter(from, to, accountId != null ? accountId : -1,
+                after != null ? after.date() : from, after != null ? (int) after.id() : 0,
+                PageRequest.of(0, limit + 1));
+        return KeysetCursor.page(rows, limit,
+                e -> new KeysetCursor(e.getTransactionDate(), e.getLedgerEntryId()), this::toDto);
+    }
+
     @Transactional(readOnly = true)
     public TrialBalanceDto getTrialBalance(LocalDate asOfDate) {
         List<Object[]> rows = ledgerEntryRepository.trialBalanceAsOf(asOfDate);
@@ -151,83 +279,177 @@ public class LedgerService {
                 .build();
     }
 
+    /**
+     * One page of the account's ledger with running balances. Opening balance, period totals, closing balance
+     * and the entry count are aggregated in SQL; only the page's rows are loaded. Pass {@code cursor}
+     * (the previous page's {@code nextCursor}) to continue by keyset instead of {@code page} offset.
+     */
     @Transactional(readOnly = true)
-    public LedgerReportDto getLedgerReport(Integer accountId, LocalDate fromDate, LocalDate toDate, int page, int size) {
-        if (accountId == null) {
-            throw new BadRequestException("Account is required for ledger report");
-        }
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", accountId));
-        if (fromDate == null) fromDate = LocalDate.now();
-        if (toDate == null) toDate = LocalDate.now();
+    public LedgerReportDto getLedgerReport(Integer accountId, LocalDate fromDate, LocalDate toDate, int page, int size, String cursor) {
         if (size <= 0) size = 20;
         if (page < 0) page = 0;
+        if (fromDate == null) fromDate = LocalDate.now();
+        if (toDate == null) toDate = LocalDate.now();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LedgerReportDto report = summarize(accountId, fromDate, toDate);
 
-        BigDecimal opening = toBigDecimal(ledgerEntryRepository.openingBalanceBefore(accountId, fromDate));
-        String openingType = opening.compareTo(BigDecimal.ZERO) >= 0 ? "Dr" : "Cr";
-        if (opening.compareTo(BigDecimal.ZERO) < 0) opening = opening.negate();
+        List<LedgerEntry> entries;
+        boolean hasNext;
+        if (after != null) {
+            // One row past the page only shows whether another page follows
+            entries = ledgerEntryRepository.findReportPageAfter(accountId, fromDate, toDate, after.date(), (int) after.id(), PageRequest.of(0, size + 1));
+            hasNext = entries.size() > size;
+            if (hasNext) entries = entries.subList(0, size);
+        } else {
+            entries = ledgerEntryRepository.findReportPage(accountId, fromDate, toDate, PageRequest.of(page, size));
+            hasNext = (long) (page + 1) * size < report.getTotalElements();
+        }
 
-        List<LedgerEntry> allEntries = ledgerEntryRepository.findAllByAccountAndDateRangeOrderByDate(accountId, fromDate, toDate);
-        BigDecimal totalDr = BigDecimal.ZERO;
-        BigDecimal totalCr = BigDecimal.ZERO;
-        for (LedgerEntry e : allEntries) {
-            totalDr = totalDr.add(e.getDebitAmount() != null ? e.getDebitAmount() : BigDecimal.ZERO);
-            totalCr = totalCr.add(e.getCreditAmount() != null ? e.getCreditAmount() : BigDecimal.ZERO);
+        BigDecimal runBal = signed(report.getOpeningBalance(), report.getOpeningBalanceType());
+        if (!entries.isEmpty() && (after != null || page > 0)) {
+            LedgerEntry first = entries.get(0);
+            runBal = ledgerEntryRepository.balanceBeforeEntry(accountId, first.getTransactionDate(), first.getLedgerEntryId());
+        }
+        report.setEntries(runningBalanceRows(entries, runBal));
+        report.setTotalPages(report.getTotalElements() == 0 ? 0 : (int) Math.ceil((double) report.getTotalElements() / size));
+        if (after == null) report.setNumber(page);
+        if (hasNext && !entries.isEmpty()) {
+            LedgerEntry last = entries.get(entries.size() - 1);
+            report.setNextCursor(new KeysetCursor(last.getTransactionDate(), last.getLedgerEntryId()).encode());
         }
+        return report;
+    }
 
-        BigDecimal runBal = openingType.equals("Cr") ? opening.negate() : opening;
-        List<LedgerEntryRowDto> rows = new ArrayList<>();
-        for (LedgerEntry e : allEntries) {
-            runBal = runBal.add(e.getDebitAmount() != null ? e.getDebitAmount() : BigDecimal.ZERO)
-                    .subtract(e.getCreditAmount() != null ? e.getCreditAmount() : BigDecimal.ZERO);
-            BigDecimal runAbs = runBal.compareTo(BigDecimal.ZERO) >= 0 ? runBal : runBal.negate();
-            String runType = runBal.compareTo(BigDecimal.ZERO) >= 0 ? "Dr" : "Cr";
-            rows.add(LedgerEntryRowDto.builder()
-                    .ledgerEntryId(e.getLedgerEntryId())
-                    .voucherNo(e.getVoucherNo())
-                    .transactionDate(e.getTransactionDate())
-                    .description(e.getDescription())
-                    .debitAmount(e.getDebitAmount())
-                    .creditAmount(e.getCreditAmount())
-                    .runningBalance(runAbs)
-                    .balanceType(runType)
-                    .build());
+    /** Receives a streamed ledger report: the summary (without entries) first, then every row in order. */
+    public interface LedgerReportWriter {
+        void begin(LedgerReportDto summary) throws IOException;
+
+        void row(LedgerEntryRowDto row) throws IOException;
+    }
+
+    /**
+     * Whole-period ledger report for print/export, handed to {@code writer} row by row while the rows are read
+     * from a database cursor, so memory use does not depend on how many entries the account has.
+     * Runs in one repeatable-read snapshot so the streamed rows always add up to the summary's totals.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void streamLedgerReport(Integer accountId, LocalDate fromDate, LocalDate toDate, LedgerReportWriter writer) throws IOException {
+        LedgerReportDto summary = summarize(accountId, fromDate, toDate);
+        summary.setTotalPages(summary.getTotalElements() == 0 ? 0 : 1);
+        writer.begin(summary);
+        BigDecimal runBal = signed(summary.getOpeningBalance(), summary.getOpeningBalanceType());
+        try (Stream<Object[]> rows = ledgerEntryRepository.streamReportRows(accountId, fromDate, toDate)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] r = it.next();
+                BigDecimal debit = toBigDecimal(r[4]);
+                BigDecimal credit = toBigDecimal(r[5]);
+                runBal = runBal.add(debit).subtract(credit);
+                writer.row(toRowDto(((Number) r[0]).intValue(), (String) r[1], toLocalDate(r[2]), (String) r[3], debit, credit, runBal));
+            }
         }
-        BigDecimal closingAbs = runBal.compareTo(BigDecimal.ZERO) >= 0 ? runBal : runBal.negate();
-        String closingType = runBal.compareTo(BigDecimal.ZERO) >= 0 ? "Dr" : "Cr";
+    }
 
-        int totalElements = rows.size();
-        int totalPages = totalElements == 0 ? 0 : (int) Math.ceil((double) totalElements / size);
-        int fromIndex = Math.min(page * size, totalElements);
-        int toIndex = Math.min(fromIndex + size, totalElements);
-        List<LedgerEntryRowDto> pageEntries = fromIndex < toIndex ? rows.subList(fromIndex, toIndex) : new ArrayList<>();
+    /** Fails fast (before a streamed response starts) if the report's account is missing. */
+    @Transactional(readOnly = true)
+    public void requireReportAccount(Integer accountId) {
+        if (accountId == null) {
+            throw new BadRequestException("Account is required for ledger report");
+        }
+        if (!accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException("Account", accountId);
+        }
+    }
 
+    /** Account, opening/closing balances and period totals for the report header; no rows. */
+    private LedgerReportDto summarize(Integer accountId, LocalDate fromDate, LocalDate toDate) {
+        if (accountId == null) {
+            throw new BadRequestException("Account is required for ledger report");
+        }
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", accountId));
+
+        BigDecimal opening = toBigDecimal(ledgerEntryRepository.openingBalanceBefore(accountId, fromDate));
+        Object[] totals = unwrapRow(ledgerEntryRepository.periodTotals(accountId, fromDate, toDate));
+        BigDecimal totalDr = toBigDecimal(totals.length > 0 ? totals[0] : null);
+        BigDecimal totalCr = toBigDecimal(totals.length > 1 ? totals[1] : null);
+        long count = totals.length > 2 && totals[2] instanceof Number n ? n.longValue() : 0L;
+        BigDecimal closing = opening.add(totalDr).subtract(totalCr);
+
+        BigDecimal current = accountBalanceService.currentBalances(List.of(account)).get(accountId);
         AccountSummaryDto accountDto = AccountSummaryDto.builder()
                 .accountId(account.getAccountId())
                 .accountCode(account.getAccountCode())
                 .accountName(account.getAccountName())
                 .accountType(account.getAccountType())
-                .currentBalance(account.getCurrentBalance())
-                .balanceType(account.getBalanceType())
+                .currentBalance(current != null ? current : account.getCurrentBalance())
+                .balanceType(current != null ? balanceType(current) : account.getBalanceType())
                 .build();
 
         return LedgerReportDto.builder()
                 .account(accountDto)
                 .fromDate(fromDate)
                 .toDate(toDate)
-                .openingBalance(opening)
-                .openingBalanceType(openingType)
-                .entries(pageEntries)
+                .openingBalance(opening.abs())
+                .openingBalanceType(balanceType(opening))
                 .totalDr(totalDr)
                 .totalCr(totalCr)
-                .closingBalance(closingAbs)
-                .closingBalanceType(closingType)
-                .totalElements(totalElements)
-                .totalPages(totalPages)
-                .number(page)
+                .closingBalance(closing.abs())
+                .closingBalanceType(balanceType(closing))
+                .totalElements(count)
                 .build();
     }
 
+    /** Report rows for {@code entries}, carrying the running balance on from {@code balanceBefore} (signed, Dr positive). */
+    static List<LedgerEntryRowDto> runningBalanceRows(List<LedgerEntry> entries, BigDecimal balanceBefore) {
+        BigDecimal runBal = balanceBefore;
+        List<LedgerEntryRowDto> rows = new ArrayList<>(entries.size());
+        for (LedgerEntry e : entries) {
+            runBal = runBal.add(nz(e.getDebitAmount())).subtract(nz(e.getCreditAmount()));
+            rows.add(toRowDto(e.getLedgerEntryId(), e.getVoucherNo(), e.getTransactionDate(), e.getDescription(),
+                    e.getDebitAmount(), e.getCreditAmount(), runBal));
+        }
+        return rows;
+    }
+
+    private static LedgerEntryRowDto toRowDto(Integer id, String voucherNo, LocalDate date, String description,
+                                              BigDecimal debit, BigDecimal credit, BigDecimal runBal) {
+        return LedgerEntryRowDto.builder()
+                .ledgerEntryId(id)
+                .voucherNo(voucherNo)
+                .transactionDate(date)
+                .description(description)
+                .debitAmount(debit)
+                .creditAmount(credit)
+                .runningBalance(runBal.abs())
+                .balanceType(balanceType(runBal))
+                .build();
+    }
+
+    private static String balanceType(BigDecimal signedBalance) {
+        return signedBalance.compareTo(BigDecimal.ZERO) >= 0 ? "Dr" : "Cr";
+    }
+
+    private static BigDecimal signed(BigDecimal abs, String type) {
+        return "Cr".equals(type) ? abs.negate() : abs;
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+
+    private static Object[] unwrapRow(Object[] row) {
+        if (row == null) return new Object[0];
+        if (row.length == 1 && row[0] instanceof Object[] inner) return inner;
+        return row;
+    }
+
+    private static LocalDate toLocalDate(Object o) {
+        if (o instanceof LocalDate d) return d;
+        if (o instanceof java.sql.Date d) return d.toLocalDate();
+        return null;
+    }
+
     private LedgerEntryDto toDto(LedgerEntry e) {
         return LedgerEntryDto.builder()
                 .ledgerEntryId(e.getLedgerEntryId())
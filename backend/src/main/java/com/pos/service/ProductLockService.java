@@ -0,0 +1,63 @@
+package com.pos.service;
+
+import com.pos.domain.Product;
+import com.pos.exception.ResourceNotFoundException;
+import com.pos.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Row-locks every product touched by a stock-changing operation in one round trip.
+ * Rows are always locked in ascending product_id order, so two tills selling overlapping
+ * products in a different cart order wait on each other instead of deadlocking.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductLockService {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Locks the given products (duplicates allowed) and returns them keyed by id.
+     * Must run inside the caller's transaction; the locks are held until it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Integer, Product> lockForUpdate(Collection<Integer> productIds) {
+        TreeSet<Integer> ids = new TreeSet<>(productIds);
+        Map<Integer, Product> byId = lock(ids);
+        for (Integer id : ids) {
+            Product p = byId.get(id);
+            if (p == null || p.getDeletedAt() != null) {
+                throw new ResourceNotFoundException("Product", id);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Like {@link #lockForUpdate} but leaves missing or deleted products out of the result instead of failing,
+     * for callers that reject only the affected part of a request.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Integer, Product> lockExisting(Collection<Integer> productIds) {
+        Map<Integer, Product> byId = lock(new TreeSet<>(productIds));
+        byId.values().removeIf(p -> p.getDeletedAt() != null);
+        return byId;
+    }
+
+    private Map<Integer, Product> lock(TreeSet<Integer> ids) {
+        Map<Integer, Product> byId = new LinkedHashMap<>();
+        if (ids.isEmpty()) return byId;
+        for (Product p : productRepository.findAllByIdsForUpdate(ids)) {
+            byId.put(p.getProductId(), p);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,64 @@
+package com.pos.service;
+
+import com.pos.domain.ProductUomPrice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-UOM selling prices for a set of products, built from one product_uom_prices query.
+ * Each product keeps a sorted int[] of uom ids with a parallel BigDecimal[] of prices, so lookups are a binary search.
+ */
+final class ProductPriceMatrix {
+
+    private static final ProductPriceMatrix EMPTY = new ProductPriceMatrix(Map.of());
+
+    private final Map<Integer, Row> rows;
+
+    private ProductPriceMatrix(Map<Integer, Row> rows) {
+        this.rows = rows;
+    }
+
+    static ProductPriceMatrix empty() {
+        return EMPTY;
+    }
+
+    /** Builds the matrix from price rows ordered by product id, then uom id. */
+    static ProductPriceMatrix of(Collection<ProductUomPrice> prices) {
+        Map<Integer, List<ProductUomPrice>> byProduct = new HashMap<>();
+        for (ProductUomPrice p : prices) {
+            byProduct.computeIfAbsent(p.getProductId(), k -> new ArrayList<>()).add(p);
+        }
+        Map<Integer, Row> rows = new HashMap<>(byProduct.size() * 2);
+        byProduct.forEach((productId, list) -> {
+            int[] uomIds = new int[list.size()];
+            BigDecimal[] values = new BigDecimal[list.size()];
+            int n = 0;
+            for (ProductUomPrice p : list) {
+                // Rows arrive sorted by uom id; keep the first price if a uom id repeats.
+                if (n > 0 && uomIds[n - 1] == p.getUomId()) continue;
+                uomIds[n] = p.getUomId();
+                values[n] = p.getPrice();
+                n++;
+            }
+            rows.put(productId, new Row(Arrays.copyOf(uomIds, n), Arrays.copyOf(values, n)));
+        });
+        return new ProductPriceMatrix(rows);
+    }
+
+    /** Price for the product in the given UOM, or {@code fallback} when no specific price is set. */
+    BigDecimal price(Integer productId, int uomId, BigDecimal fallback) {
+        Row row = rows.get(productId);
+        if (row == null) return fallback;
+        int i = Arrays.binarySearch(row.uomIds, uomId);
+        return i >= 0 ? row.prices[i] : fallback;
+    }
+
+    private record Row(int[] uomIds, BigDecimal[] prices) {
+    }
+}
@@ -2,7 +2,6 @@ package com.pos.service;
 
 import com.pos.domain.SalesInvoiceItem;
 import com.pos.domain.Product;
-import com.pos.domain.ProductUomPrice;
 import com.pos.domain.UnitOfMeasure;
 import com.pos.dto.LastSaleDto;
 import com.pos.dto.PriceHistoryEntryDto;
@@ -12,7 +11,6 @@ import com.pos.exception.ResourceNotFoundException;
 import com.pos.repository.ProductRepository;
 import com.pos.repository.ProductUomPriceRepository;
 import com.pos.repository.SalesInvoiceItemRepository;
-import com.pos.repository.UnitOfMeasureRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,7 +20,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,7 +29,7 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductUomPriceRepository productUomPriceRepository;
-    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final SalesInvoiceItemRepository salesInvoiceItemRepository;
 
     @Transactional(readOnly = true)
@@ -40,21 +37,25 @@ public class ProductService {
         Page<Product> page = name != null && !name.isBlank()
                 ? productRepository.findByDeletedAtIsNullAndNameEnContainingIgnoreCase(name.trim(), pageable)
                 : productRepository.findByDeletedAtIsNull(pageable);
-        return page.map(this::toSummaryDto);
+        ProductPriceMatrix prices = loadPrices(page.getContent());
+        List<UnitOfMeasure> uoms = referenceDataCache.uoms();
+        return page.map(p -> toSummaryDto(p, prices, uoms));
     }
 
     @Transactional(readOnly = true)
     public ProductSummaryDto findById(Integer id) {
         Product p = productRepository.findByProductIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", id));
-        return toSummaryDto(p);
+        return toSummaryDto(p, loadPrices(List.of(p)), referenceDataCache.uoms());
     }
 
     @Transactional(readOnly = true)
     public List<ProductSummaryDto> findByIds(List<Integer> ids) {
         if (ids == null || ids.isEmpty()) return List.of();
         List<Product> products = productRepository.findByProductIdInAndDeletedAtIsNull(ids);
-        return products.stream().map(this::toSummaryDto).toList();
+        ProductPriceMatrix prices = loadPrices(products);
+        List<UnitOfMeasure> uoms = referenceDataCache.uoms();
+        return products.stream().map(p -> toSummaryDto(p, prices, uoms)).toList();
     }
 
     @Transactional(readOnly = true)
@@ -93,10 +94,18 @@ public class ProductService {
                 .toList();
     }
 
-    private ProductSummaryDto toSummaryDto(Product p) {
+    /** One query for the per-UOM prices of every product on the page. */
+    private ProductPriceMatrix loadPrices(List<Product> products) {
+        if (products.isEmpty()) return ProductPriceMatrix.empty();
+        List<Integer> ids = products.stream().map(Product::getProductId).toList();
+        return ProductPriceMatrix.of(productUomPriceRepository.findByProductIdInOrderByProductIdAscUomIdAsc(ids));
+    }
+
+    /** {@code uoms}: every unit of measure, read once per page from the reference data cache. */
+    static ProductSummaryDto toSummaryDto(Product p, ProductPriceMatrix prices, List<UnitOfMeasure> uoms) {
         var uom = p.getUom();
         var brand = p.getBrand();
-        List<ProductUomPriceDto> uomPrices = buildUomPrices(p);
+        List<ProductUomPriceDto> uomPrices = buildUomPrices(p, prices, uoms);
         BigDecimal sellingPrice = p.getSellingPrice();
         if (uom != null && uomPrices != null) {
             sellingPrice = uomPrices.stream()
@@ -120,23 +129,14 @@ public class ProductService {
                 .build();
     }
 
-    private List<ProductUomPriceDto> buildUomPrices(Product p) {
-        List<UnitOfMeasure> allUoms = unitOfMeasureRepository.findAll();
-        List<ProductUomPrice> productPrices = productUomPriceRepository.findByProductIdOrderByUomId(p.getProductId());
-        Map<Integer, BigDecimal> priceByUomId = productPrices.stream()
-                .collect(Collectors.toMap(ProductUomPrice::getUomId, ProductUomPrice::getPrice, (a, b) -> a));
+    private static List<ProductUomPriceDto> buildUomPrices(Product p, ProductPriceMatrix prices, List<UnitOfMeasure> uoms) {
         BigDecimal defaultPrice = p.getSellingPrice() != null ? p.getSellingPrice() : BigDecimal.ZERO;
-        return allUoms.stream()
-                .map(u -> {
-                    BigDecimal price = priceByUomId.containsKey(u.getUomId())
-                            ? priceByUomId.get(u.getUomId())
-                            : defaultPrice;
-                    return ProductUomPriceDto.builder()
-                            .uomId(u.getUomId())
-                            .uomName(u.getName())
-                            .price(price)
-                            .build();
-                })
+        return uoms.stream()
+                .map(u -> ProductUomPriceDto.builder()
+                        .uomId(u.getUomId())
+                        .uomName(u.getName())
+                        .price(prices.price(p.getProductId(), u.getUomId(), defaultPrice))
+                        .build())
                 .collect(Collectors.toList());
     }
 }
@@ -30,9 +30,7 @@ public class PurchaseOrderService {
     private final SupplierRepository supplierRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final UnitOfMeasureRepository unitOfMeasureRepository;
-    private final AccountRepository accountRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final StockTransactionService stockTransactionService;
     private final LedgerService ledgerService;
 
@@ -59,7 +57,7 @@ public class PurchaseOrderService {
                 throw new ResourceNotFoundException("Product", itemReq.getProductId());
             }
             UnitOfMeasure uom = itemReq.getUomId() != null
-                    ? unitOfMeasureRepository.findById(itemReq.getUomId()).orElse(product.getUom())
+                    ? referenceDataCache.uom(itemReq.getUomId()).orElse(product.getUom())
                     : product.getUom();
             BigDecimal qty = itemReq.getQuantity();
             BigDecimal unitPrice = itemReq.getUnitPrice();
@@ -116,7 +114,7 @@ public class PurchaseOrderService {
         stockInRequest.setDescription("Purchase, Order # " + po.getOrderNumber());
         stockInRequest.setItems(stockItems);
 
-        TransactionType stockInType = transactionTypeRepository.findByTypeCode("STOCK_IN")
+        TransactionType stockInType = referenceDataCache.transactionType("STOCK_IN")
                 .orElseThrow(() -> new BadRequestException("Transaction type STOCK_IN not found."));
         StockMovementResponse stockResponse = stockTransactionService.performStockMovement(
                 null,
@@ -130,22 +128,22 @@ public class PurchaseOrderService {
                 po
         );
 
-        Account inventoryAccount = accountRepository.findFirstByAccountTypeAndIsActiveTrue(ACCOUNT_TYPE_INVENTORY)
+        Integer inventoryAccountId = referenceDataCache.accountIdByType(ACCOUNT_TYPE_INVENTORY)
                 .orElseThrow(() -> new BadRequestException("Inventory account not found. Add an account with type 'Inventory' (e.g. INV001)."));
         Account supplierAccount = po.getSupplier().getAccount();
 
         String voucherNo = "PO-" + po.getOrderNumber();
-        ledgerService.post(
+        ledgerService.postBatch(List.of(LedgerService.Voucher.pair(
                 voucherNo,
                 po.getOrderDate(),
                 "Purchase, Order # " + po.getOrderNumber(),
-                inventoryAccount.getAccountId(),
+                inventoryAccountId,
                 supplierAccount.getAccountId(),
                 po.getTotalAmount(),
                 REF_TYPE_PURCHASE,
                 po.getPurchaseOrderId().longValue(),
                 ledgerService.getUserIdByUsername(username)
-        );
+        )));
 
         po.setStatus(STATUS_RECEIVED);
         purchaseOrderRepository.save(po);
@@ -0,0 +1,123 @@
+package com.pos.service;
+
+import com.pos.domain.RecordNumberNode;
+import com.pos.repository.RecordNumberNodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues unique, time-ordered record numbers (stock transactions) without querying for collisions.
+ * Each number is {@code prefix-XXXXXXXXXXXXX}: a fixed-width base-36 id made of milliseconds since 2024-01-01,
+ * the node id ({@code record-number.node-id}, 0–1023, unique per running instance) and a per-millisecond counter.
+ * <p>
+ * Ids are handed out from memory with a CAS loop. The only database write is the node's high-water mark,
+ * advanced {@link #HIGH_WATER_WINDOW_MS} ahead whenever issued timestamps reach it, so a restart (even with
+ * the clock set back) resumes above every id the node has already issued.
+ */
+@Service
+@Slf4j
+public class RecordNumberAllocator {
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long HIGH_WATER_WINDOW_MS = 60_000L;
+    private static final int ID_WIDTH = 13;
+
+    private final RecordNumberNodeRepository nodeRepository;
+    private final TransactionTemplate requiresNew;
+    private final int nodeId;
+
+    /** Last id issued; packs timestamp, node id and sequence. */
+    private final AtomicLong lastId = new AtomicLong();
+    /** Timestamps below this value are covered by the persisted high-water mark. */
+    private volatile long highWaterMs = -1;
+
+    public RecordNumberAllocator(
+            RecordNumberNodeRepository nodeRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${record-number.node-id:0}") int nodeId
+    ) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("record-number.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeRepository = nodeRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId;
+    }
+
+    /** Next record number, e.g. {@code next("ST-IN")} -> {@code ST-IN-0K3Z8Q1M7B2XS}. */
+    public String next(String prefix) {
+        if (highWaterMs < 0) {
+            initialize();
+        }
+        long id;
+        long timestamp;
+        while (true) {
+            long last = lastId.get();
+            long lastTimestamp = last >>> TIMESTAMP_SHIFT;
+            long now = System.currentTimeMillis() - EPOCH_MS;
+            long sequence;
+            if (now > lastTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                // Same millisecond or clock moved back: keep counting on the last timestamp, borrowing the next one when full.
+                timestamp = lastTimestamp;
+                sequence = (last & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+            }
+            id = (timestamp << TIMESTAMP_SHIFT) | ((long) nodeId << SEQUENCE_BITS) | sequence;
+            if (lastId.compareAndSet(last, id)) break;
+        }
+        if (timestamp >= highWaterMs) {
+            advanceHighWater(timestamp);
+        }
+        return prefix + "-" + pad(Long.toString(id, 36).toUpperCase(Locale.ROOT));
+    }
+
+    private synchronized void initialize() {
+        if (highWaterMs >= 0) return;
+        long now = System.currentTimeMillis() - EPOCH_MS;
+        long persisted = requiresNew.execute(status -> nodeRepository.findById(nodeId)
+                .map(RecordNumberNode::getHighWaterMs)
+                .orElse(0L));
+        long start = Math.max(now, persisted);
+        lastId.set((start << TIMESTAMP_SHIFT) | ((long) nodeId << SEQUENCE_BITS) | SEQUENCE_MASK);
+        highWaterMs = 0;
+        advanceHighWater(start);
+        log.info("Record number allocator started for node {} at {}", nodeId, start);
+    }
+
+    private synchronized void advanceHighWater(long timestamp) {
+        if (timestamp < highWaterMs) return;
+        long target = timestamp + HIGH_WATER_WINDOW_MS;
+        requiresNew.executeWithoutResult(status -> {
+            RecordNumberNode node = nodeRepository.findForUpdate(nodeId)
+                    .orElseGet(() -> RecordNumberNode.builder().nodeId(nodeId).highWaterMs(0L).build());
+            if (node.getHighWaterMs() < target) {
+                node.setHighWaterMs(target);
+                nodeRepository.save(node);
+            }
+        });
+        highWaterMs = target;
+    }
+
+    private static String pad(String s) {
+        return s.length() >= ID_WIDTH ? s : "0".repeat(ID_WIDTH - s.length()) + s;
+    }
+}
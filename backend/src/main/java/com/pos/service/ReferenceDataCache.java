@@ -0,0 +1,216 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.domain.Branch;
+import com.pos.domain.DeliveryMode;
+import com.pos.domain.TransactionType;
+import com.pos.domain.UnitOfMeasure;
+import com.pos.repository.AccountRepository;
+import com.pos.repository.BranchRepository;
+import com.pos.repository.DeliveryModeRepository;
+import com.pos.repository.TransactionTypeRepository;
+import com.pos.repository.UnitOfMeasureRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of reference data that only changes through seed/migration scripts:
+ * transaction types, units of measure, delivery modes, branches and the account id used for each account type.
+ * <p>
+ * Loaded once at startup into an immutable snapshot that readers use without locking. A lookup that misses
+ * falls back to the database and adds the row to a new snapshot; call {@link #refresh()} (or
+ * POST /v1/reference-data/refresh) after editing these tables. Cached entities are detached and must be
+ * treated as read-only; they are safe to assign as many-to-one references on new rows.
+ * Hit/miss counts are published as {@code pos.reference_data.lookups}.
+ */
+@Service
+@Slf4j
+public class ReferenceDataCache {
+
+    private enum Region { TRANSACTION_TYPE, ACCOUNT_TYPE, UOM, DELIVERY_MODE, BRANCH }
+
+    private final TransactionTypeRepository transactionTypeRepository;
+    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final DeliveryModeRepository deliveryModeRepository;
+    private final BranchRepository branchRepository;
+    private final AccountRepository accountRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Map<Region, Counter> hits = new EnumMap<>(Region.class);
+    private final Map<Region, Counter> misses = new EnumMap<>(Region.class);
+
+    public ReferenceDataCache(
+            TransactionTypeRepository transactionTypeRepository,
+            UnitOfMeasureRepository unitOfMeasureRepository,
+            DeliveryModeRepository deliveryModeRepository,
+            BranchRepository branchRepository,
+            AccountRepository accountRepository,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactionTypeRepository = transactionTypeRepository;
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.deliveryModeRepository = deliveryModeRepository;
+        this.branchRepository = branchRepository;
+        this.accountRepository = accountRepository;
+        for (Region region : Region.values()) {
+            String tag = region.name().toLowerCase();
+            hits.put(region, Counter.builder("pos.reference_data.lookups")
+                    .tag("region", tag).tag("result", "hit").register(meterRegistry));
+            misses.put(region, Counter.builder("pos.reference_data.lookups")
+                    .tag("region", tag).tag("result", "miss").register(meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    /** Reloads every region from the database and swaps in the new snapshot. */
+    public void refresh() {
+        Map<String, Integer> accountIdByType = new HashMap<>();
+        accountRepository.findByIsActiveTrueOrderByAccountCodeAsc().stream()
+                .sorted(Comparator.comparing(Account::getAccountId))
+                .forEach(a -> accountIdByType.putIfAbsent(a.getAccountType(), a.getAccountId()));
+        Snapshot fresh = new Snapshot(
+                byKey(transactionTypeRepository.findAll(), TransactionType::getTypeCode),
+                accountIdByType,
+                byKey(unitOfMeasureRepository.findAll(), UnitOfMeasure::getUomId),
+                byKey(deliveryModeRepository.findAll(), DeliveryMode::getDeliveryModeId),
+                byKey(branchRepository.findAll(), Branch::getBranchId)
+        );
+        snapshot.set(fresh);
+        log.info("Reference data loaded: {} transaction types, {} account types, {} UOMs, {} delivery modes, {} branches",
+                fresh.transactionTypes().size(), fresh.accountIdByType().size(), fresh.uoms().size(),
+                fresh.deliveryModes().size(), fresh.branches().size());
+    }
+
+    public Optional<TransactionType> transactionType(String typeCode) {
+        if (typeCode == null) return Optional.empty();
+        TransactionType cached = current().transactionTypes().get(typeCode);
+        if (record(Region.TRANSACTION_TYPE, cached)) return Optional.of(cached);
+        Optional<TransactionType> loaded = transactionTypeRepository.findByTypeCode(typeCode);
+        loaded.ifPresent(t -> snapshot.updateAndGet(s -> s.withTransactionType(t)));
+        return loaded;
+    }
+
+    /** Id of the active account used for postings of the given type (e.g. Revenue, Cash, Inventory). */
+    public Optional<Integer> accountIdByType(String accountType) {
+        if (accountType == null) return Optional.empty();
+        Integer cached = current().accountIdByType().get(accountType);
+        if (record(Region.ACCOUNT_TYPE, cached)) return Optional.of(cached);
+        Optional<Integer> loaded = accountRepository.findFirstByAccountTypeAndIsActiveTrue(accountType)
+                .map(Account::getAccountId);
+        loaded.ifPresent(id -> snapshot.updateAndGet(s -> s.withAccountType(accountType, id)));
+        return loaded;
+    }
+
+    public Optional<UnitOfMeasure> uom(Integer uomId) {
+        if (uomId == null) return Optional.empty();
+        UnitOfMeasure cached = current().uoms().get(uomId);
+        if (record(Region.UOM, cached)) return Optional.of(cached);
+        Optional<UnitOfMeasure> loaded = unitOfMeasureRepository.findById(uomId);
+        loaded.ifPresent(u -> snapshot.updateAndGet(s -> s.withUom(u)));
+        return loaded;
+    }
+
+    /** All units of measure ordered by id. */
+    public List<UnitOfMeasure> uoms() {
+        hits.get(Region.UOM).increment();
+        return current().uoms().values().stream()
+                .sorted(Comparator.comparing(UnitOfMeasure::getUomId))
+                .toList();
+    }
+
+    public Optional<DeliveryMode> deliveryMode(Integer deliveryModeId) {
+        if (deliveryModeId == null) return Optional.empty();
+        DeliveryMode cached = current().deliveryModes().get(deliveryModeId);
+        if (record(Region.DELIVERY_MODE, cached)) return Optional.of(cached);
+        Optional<DeliveryMode> loaded = deliveryModeRepository.findById(deliveryModeId);
+        loaded.ifPresent(d -> snapshot.updateAndGet(s -> s.withDeliveryMode(d)));
+        return loaded;
+    }
+
+    public Optional<Branch> branch(Integer branchId) {
+        if (branchId == null) return Optional.empty();
+        Branch cached = current().branches().get(branchId);
+        if (record(Region.BRANCH, cached)) return Optional.of(cached);
+        Optional<Branch> loaded = branchRepository.findById(branchId);
+        loaded.ifPresent(b -> snapshot.updateAndGet(s -> s.withBranch(b)));
+        return loaded;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot.get();
+        if (s == null) {
+            refresh();
+            s = snapshot.get();
+        }
+        return s;
+    }
+
+    private boolean record(Region region, Object cached) {
+        (cached != null ? hits : misses).get(region).increment();
+        return cached != null;
+    }
+
+    private static <K, V> Map<K, V> byKey(List<V> rows, Function<V, K> key) {
+        return rows.stream().collect(Collectors.toMap(key, Function.identity(), (a, b) -> a));
+    }
+
+    private static <K, V> Map<K, V> with(Map<K, V> map, K key, V value) {
+        Map<K, V> copy = new HashMap<>(map);
+        copy.put(key, value);
+        return copy;
+    }
+
+    private record Snapshot(
+            Map<String, TransactionType> transactionTypes,
+            Map<String, Integer> accountIdByType,
+            Map<Integer, UnitOfMeasure> uoms,
+            Map<Integer, DeliveryMode> deliveryModes,
+            Map<Integer, Branch> branches
+    ) {
+        Snapshot {
+            transactionTypes = Map.copyOf(transactionTypes);
+            accountIdByType = Map.copyOf(accountIdByType);
+            uoms = Map.copyOf(uoms);
+            deliveryModes = Map.copyOf(deliveryModes);
+            branches = Map.copyOf(branches);
+        }
+
+        Snapshot withTransactionType(TransactionType t) {
+            return new Snapshot(with(transactionTypes, t.getTypeCode(), t), accountIdByType, uoms, deliveryModes, branches);
+        }
+
+        Snapshot withAccountType(String type, Integer accountId) {
+            return new Snapshot(transactionTypes, with(accountIdByType, type, accountId), uoms, deliveryModes, branches);
+        }
+
+        Snapshot withUom(UnitOfMeasure u) {
+            return new Snapshot(transactionTypes, accountIdByType, with(uoms, u.getUomId(), u), deliveryModes, branches);
+        }
+
+        Snapshot withDeliveryMode(DeliveryMode d) {
+            return new Snapshot(transactionTypes, accountIdByType, uoms, with(deliveryModes, d.getDeliveryModeId(), d), branches);
+        }
+
+        Snapshot withBranch(Branch b) {
+            return new Snapshot(transactionTypes, accountIdByType, uoms, deliveryModes, with(branches, b.getBranchId(), b));
+        }
+    }
+}
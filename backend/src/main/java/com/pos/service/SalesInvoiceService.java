@@ -13,15 +13,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -32,14 +34,17 @@ public class SalesInvoiceService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final CustomerRepository customerRepository;
-    private final AccountRepository accountRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
-    private final DeliveryModeRepository deliveryModeRepository;
-    private final BranchRepository branchRepository;
-    private final UnitOfMeasureRepository unitOfMeasureRepository;
     private final StockTransactionRepository stockTransactionRepository;
     private final SalesInvoiceItemRepository salesInvoiceItemRepository;
     private final LedgerService ledgerService;
+    private final LedgerOutboxService ledgerOutboxService;
+    private final ProductLockService productLockService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final RecordNumberAllocator recordNumberAllocator;
+    private final ReferenceDataCache referenceDataCache;
+    private final SalesRollupService salesRollupService;
+    private final DashboardResultCache dashboardResultCache;
+    private final TransactionTemplate transactionTemplate;
 
     private static final String TRANSACTION_TYPE_SALE = "SALE";
     private static final String TRANSACTION_TYPE_STOCK_OUT = "STOCK_OUT";
@@ -48,22 +53,134 @@ public class SalesInvoiceService {
     private static final String REF_TYPE_SALE = "SALE";
     private static final String REF_TYPE_PAYMENT = "PAYMENT";
 
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * Saves one invoice. Its number is allocated before the transaction opens, so reserving a new block of
+     * numbers never needs a second connection while the products are locked.
+     */
     public InvoiceResponse createInvoice(CreateInvoiceRequest request, String username) {
+        String allocatedNumber = allocateNumber(request);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsernameAndDeletedAtIsNull(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", username));
+            Map<Integer, Product> lockedProducts = productLockService.lockForUpdate(productIds(request));
+            PreparedInvoice prepared = prepare(request, allocatedNumber, user, lockedProducts, loadCustomers(List.of(request)),
+                    new HashMap<>(), new HashSet<>());
+            applyStock(prepared.stockDeltas, lockedProducts);
+
+            List<LedgerService.Voucher> vouchers = new ArrayList<>(2);
+            SalesInvoice invoice = persist(prepared, vouchers);
+            ledgerOutboxService.enqueue(vouchers);
+            return toResponse(invoice);
+        });
+    }
+
+    /**
+     * Creates many invoices at once (offline tills catching up). All touched products are locked once, in id order;
+     * invoices are checked in request order against the stock left by the ones before them, and each invoice
+     * that fails a check is reported and skipped while the rest are saved. Stock is then changed once per product
+     * and all ledger vouchers are queued together. Numbers are allocated up front, as for {@link #createInvoice}.
+     */
+    public BatchInvoiceResponse createInvoices(List<CreateInvoiceRequest> requests, String username) {
+        List<String> allocatedNumbers = requests.stream().map(this::allocateNumber).toList();
+        return transactionTemplate.execute(status -> createInvoices(requests, allocatedNumbers, username));
+    }
+
+    private BatchInvoiceResponse createInvoices(List<CreateInvoiceRequest> requests, List<String> allocatedNumbers, String username) {
         User user = userRepository.findByUsernameAndDeletedAtIsNull(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", username));
+        Map<Integer, Product> lockedProducts = productLockService.lockExisting(
+                requests.stream().flatMap(r -> productIds(r).stream()).toList());
+        Map<Integer, Customer> customers = loadCustomers(requests);
+
+        Map<Integer, BigDecimal> batchDeltas = new HashMap<>();
+        Set<String> batchNumbers = new HashSet<>();
+        List<PreparedInvoice> accepted = new ArrayList<>();
+        BatchInvoiceResponse.Result[] results = new BatchInvoiceResponse.Result[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                PreparedInvoice prepared = prepare(requests.get(i), allocatedNumbers.get(i), user, lockedProducts, customers,
+                        batchDeltas, batchNumbers);
+                prepared.stockDeltas.forEach((productId, delta) -> batchDeltas.merge(productId, delta, BigDecimal::add));
+                prepared.index = i;
+                accepted.add(prepared);
+            } catch (BadRequestException | ResourceNotFoundException ex) {
+                results[i] = BatchInvoiceResponse.Result.builder()
+                        .index(i)
+                        .invoiceNumber(requests.get(i).getInvoiceNumber())
+                        .success(false)
+                        .error(ex.getMessage())
+                        .build();
+            }
+        }
+        applyStock(batchDeltas, lockedProducts);
+
+        List<LedgerService.Voucher> vouchers = new ArrayList<>(accepted.size() * 2);
+        for (PreparedInvoice prepared : accepted) {
+            SalesInvoice invoice = persist(prepared, vouchers);
+            results[prepared.index] = BatchInvoiceResponse.Result.builder()
+                    .index(prepared.index)
+                    .invoiceNumber(invoice.getInvoiceNumber())
+                    .invoiceId(invoice.getSalesInvoiceId())
+                    .netTotal(invoice.getNetTotal())
+                    .success(true)
+                    .build();
+        }
+        ledgerOutboxService.enqueue(vouchers);
 
+        return BatchInvoiceResponse.builder()
+                .succeeded(accepted.size())
+                .failed(requests.size() - accepted.size())
+                .results(List.of(results))
+                .build();
+    }
+
+    /** A validated invoice, built but not yet saved; see {@link #prepare} and {@link #persist}. */
+    private static final class PreparedInvoice {
+        int index;
+        CreateInvoiceRequest request;
+        String invoiceNumber;
+        User user;
+        Customer customer;
+        Branch branch;
+        DeliveryMode deliveryMode;
+        TransactionType invoiceTxnType;
+        TransactionType stockType;
+        boolean isReturn;
+        boolean saveAsDraft;
+        List<SalesInvoiceItem> invoiceItems;
+        List<StockTransactionItem> stockItems;
+        BigDecimal grandTotal;
+        BigDecimal netTotal;
+        BigDecimal amountReceived;
+        BigDecimal changeReturned;
+        Integer revenueAccountId;
+        Integer cashAccountId;
+        /** Stock change per product this invoice makes once saved (empty for drafts). */
+        Map<Integer, BigDecimal> stockDeltas;
+    }
+
+    /**
+     * Checks the request and builds the invoice without writing anything. {@code batchDeltas} holds the stock
+     * changes of earlier invoices of the same batch (not yet applied to the products) and {@code batchNumbers}
+     * their invoice numbers. {@code allocatedNumber} is the number from {@link #allocateNumber}, used when the
+     * request brings none; a rejected request leaves it as a gap.
+     */
+    private PreparedInvoice prepare(CreateInvoiceRequest request, String allocatedNumber, User user, Map<Integer, Product> lockedProducts,
+                                    Map<Integer, Customer> customers, Map<Integer, BigDecimal> batchDeltas,
+                                    Set<String> batchNumbers) {
         String txnCode = request.getTransactionTypeCode() != null ? request.getTransactionTypeCode().trim().toUpperCase() : TRANSACTION_TYPE_SALE;
-        TransactionType invoiceTxnType = transactionTypeRepository.findByTypeCode(txnCode)
+        TransactionType invoiceTxnType = referenceDataCache.transactionType(txnCode)
                 .orElseThrow(() -> new BadRequestException("Transaction type not found: " + txnCode + ". Use SALE, RETURN, or EXCHANGE."));
 
         boolean isReturn = "RETURN".equals(txnCode) || "EXCHANGE".equals(txnCode);
         TransactionType stockType = isReturn
-                ? transactionTypeRepository.findByTypeCode("STOCK_IN").orElseThrow(() -> new BadRequestException("Transaction type STOCK_IN not found."))
-                : transactionTypeRepository.findByTypeCode(TRANSACTION_TYPE_STOCK_OUT).orElseThrow(() -> new BadRequestException("Transaction type STOCK_OUT not found."));
+                ? referenceDataCache.transactionType("STOCK_IN").orElseThrow(() -> new BadRequestException("Transaction type STOCK_IN not found."))
+                : referenceDataCache.transactionType(TRANSACTION_TYPE_STOCK_OUT).orElseThrow(() -> new BadRequestException("Transaction type STOCK_OUT not found."));
 
-        if (salesInvoiceRepository.findByInvoiceNumber(request.getInvoiceNumber()).isPresent()) {
-            throw new BadRequestException("Invoice number already exists: " + request.getInvoiceNumber());
+        String requestedNumber = request.getInvoiceNumber() != null ? request.getInvoiceNumber().trim() : "";
+        if (!requestedNumber.isEmpty()
+                && (batchNumbers.contains(requestedNumber) || salesInvoiceRepository.existsByInvoiceNumber(requestedNumber))) {
+            throw new BadRequestException("Invoice number already exists: " + requestedNumber);
         }
 
         boolean saveAsDraft = Boolean.TRUE.equals(request.getSaveAsDraft());
@@ -73,37 +190,35 @@ public class SalesInvoiceService {
 
         Customer customer = null;
         if (request.getCustomerId() != null) {
-            customer = customerRepository.findById(request.getCustomerId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Customer", request.getCustomerId()));
-            if (customer.getDeletedAt() != null) {
+            customer = customers.get(request.getCustomerId());
+            if (customer == null || customer.getDeletedAt() != null) {
                 throw new ResourceNotFoundException("Customer", request.getCustomerId());
             }
         }
 
-        Branch branch = request.getBranchId() != null
-                ? branchRepository.findById(request.getBranchId()).orElse(null)
-                : null;
-
-        DeliveryMode deliveryMode = request.getDeliveryModeId() != null
-                ? deliveryModeRepository.findById(request.getDeliveryModeId()).orElse(null)
-                : null;
-
         BigDecimal grandTotal = BigDecimal.ZERO;
         List<SalesInvoiceItem> invoiceItems = new ArrayList<>();
         List<StockTransactionItem> stockItems = new ArrayList<>();
+        Map<Integer, BigDecimal> stockDeltas = new HashMap<>();
 
         for (int i = 0; i < request.getItems().size(); i++) {
             CreateInvoiceItemRequest itemReq = request.getItems().get(i);
-            Product product = productRepository.findByIdForUpdate(itemReq.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", itemReq.getProductId()));
-            if (product.getDeletedAt() != null) {
+            Product product = lockedProducts.get(itemReq.getProductId());
+            if (product == null) {
                 throw new ResourceNotFoundException("Product", itemReq.getProductId());
             }
 
             BigDecimal qty = itemReq.getQuantity();
-            if (!saveAsDraft && !isReturn && product.getCurrentStock().compareTo(qty) < 0) {
-                throw new BadRequestException(
-                        "Insufficient stock for product " + product.getCode() + ". Available: " + product.getCurrentStock() + ", requested: " + qty);
+            BigDecimal quantityChange = isReturn ? qty : qty.negate();
+            if (!saveAsDraft) {
+                BigDecimal stock = product.getCurrentStock()
+                        .add(batchDeltas.getOrDefault(product.getProductId(), BigDecimal.ZERO))
+                        .add(stockDeltas.getOrDefault(product.getProductId(), BigDecimal.ZERO));
+                if (!isReturn && stock.compareTo(qty) < 0) {
+                    throw new BadRequestException(
+                            "Insufficient stock for product " + product.getCode() + ". Available: " + stock + ", requested: " + qty);
+                }
+                stockDeltas.merge(product.getProductId(), quantityChange, BigDecimal::add);
             }
 
             BigDecimal unitPrice = itemReq.getUnitPrice();
@@ -111,61 +226,117 @@ public class SalesInvoiceService {
             grandTotal = grandTotal.add(lineTotal);
 
             UnitOfMeasure uom = itemReq.getUomId() != null
-                    ? unitOfMeasureRepository.findById(itemReq.getUomId()).orElse(product.getUom())
+                    ? referenceDataCache.uom(itemReq.getUomId()).orElse(product.getUom())
                     : product.getUom();
 
-            SalesInvoiceItem invItem = SalesInvoiceItem.builder()
+            invoiceItems.add(SalesInvoiceItem.builder()
                     .product(product)
                     .quantity(qty)
                     .unitPrice(unitPrice)
                     .lineTotal(lineTotal)
                     .uom(uom)
                     .sortOrder(i)
-                    .build();
-            invoiceItems.add(invItem);
+                    .build());
 
-            BigDecimal quantityChange = isReturn ? qty : qty.negate();
-            StockTransactionItem stItem = StockTransactionItem.builder()
+            stockItems.add(StockTransactionItem.builder()
                     .product(product)
                     .quantityChange(quantityChange)
                     .priceAtTransaction(unitPrice)
-                    .build();
-            stockItems.add(stItem);
-
-            if (!saveAsDraft) {
-                if (isReturn) {
-                    product.setCurrentStock(product.getCurrentStock().add(qty));
-                } else {
-                    product.setCurrentStock(product.getCurrentStock().subtract(qty));
-                }
-                productRepository.save(product);
-            }
+                    .build());
         }
 
         BigDecimal additionalDiscount = request.getAdditionalDiscount() != null ? request.getAdditionalDiscount() : BigDecimal.ZERO;
         BigDecimal additionalExpenses = request.getAdditionalExpenses() != null ? request.getAdditionalExpenses() : BigDecimal.ZERO;
         BigDecimal netTotal = grandTotal.subtract(additionalDiscount).add(additionalExpenses);
         BigDecimal amountReceived = request.getAmountReceived() != null ? request.getAmountReceived() : BigDecimal.ZERO;
-        BigDecimal changeReturned = request.getChangeReturned() != null ? request.getChangeReturned() : BigDecimal.ZERO;
-        String invoiceStatus = saveAsDraft ? "DRAFT" : "COMPLETED";
 
+        Integer revenueAccountId = null;
+        if (!saveAsDraft && customer != null && netTotal.compareTo(BigDecimal.ZERO) > 0) {
+            revenueAccountId = referenceDataCache.accountIdByType(ACCOUNT_TYPE_REVENUE)
+                    .orElseThrow(() -> new BadRequestException("Sales Revenue account not found. Add an account with type 'Revenue' (e.g. code REV001)."));
+        }
+        Integer cashAccountId = null;
+        if (!saveAsDraft && customer != null && amountReceived.compareTo(BigDecimal.ZERO) > 0) {
+            cashAccountId = referenceDataCache.accountIdByType(ACCOUNT_TYPE_CASH)
+                    .orElseThrow(() -> new BadRequestException("POS Cash account not found. Add an account with type 'Cash' (e.g. code POS-CASH or CASH001)."));
+        }
+        if (revenueAccountId != null || cashAccountId != null) {
+            // Checked per invoice so that, in a batch, one customer's bad account rejects only that invoice
+            Account customerAccount = customer.getAccount();
+            if (customerAccount == null) {
+                throw new BadRequestException("Customer " + customer.getCustomerId() + " has no ledger account.");
+            }
+            if (!Boolean.TRUE.equals(customerAccount.getIsActive())) {
+                throw new BadRequestException("Ledger account of customer " + customer.getCustomerId() + " is inactive.");
+            }
+        }
+
+        PreparedInvoice prepared = new PreparedInvoice();
+        prepared.request = request;
+        prepared.invoiceNumber = requestedNumber.isEmpty() ? freeNumber(request, allocatedNumber, batchNumbers) : requestedNumber;
+        batchNumbers.add(prepared.invoiceNumber);
+        prepared.user = user;
+        prepared.customer = customer;
+        prepared.branch = referenceDataCache.branch(request.getBranchId()).orElse(null);
+        prepared.deliveryMode = referenceDataCache.deliveryMode(request.getDeliveryModeId()).orElse(null);
+        prepared.invoiceTxnType = invoiceTxnType;
+        prepared.stockType = stockType;
+        prepared.isReturn = isReturn;
+        prepared.saveAsDraft = saveAsDraft;
+        prepared.invoiceItems = invoiceItems;
+        prepared.stockItems = stockItems;
+        prepared.grandTotal = grandTotal;
+        prepared.netTotal = netTotal;
+        prepared.amountReceived = amountReceived;
+        prepared.changeReturned = request.getChangeReturned() != null ? request.getChangeReturned() : BigDecimal.ZERO;
+        prepared.revenueAccountId = revenueAccountId;
+        prepared.cashAccountId = cashAccountId;
+        prepared.stockDeltas = stockDeltas;
+        return prepared;
+    }
+
+    /** Allocates a number for a request that brings none (null otherwise); called before any transaction opens. */
+    private String allocateNumber(CreateInvoiceRequest request) {
+        boolean hasNumber = request.getInvoiceNumber() != null && !request.getInvoiceNumber().trim().isEmpty();
+        return hasNumber ? null : invoiceNumberAllocator.next(request.getBranchId(), request.getInvoiceDate());
+    }
+
+    /**
+     * The allocated number, or the next one already reserved in memory if an invoice has taken it. A client may
+     * have supplied a number in the same series (typed in, or a till's offline fallback); such numbers are
+     * skipped rather than saved twice. No new block is reserved here, inside the checkout transaction.
+     */
+    private String freeNumber(CreateInvoiceRequest request, String allocatedNumber, Set<String> batchNumbers) {
+        String number = allocatedNumber;
+        while (batchNumbers.contains(number) || salesInvoiceRepository.existsByInvoiceNumber(number)) {
+            number = invoiceNumberAllocator.nextReserved(request.getBranchId(), request.getInvoiceDate());
+            if (number == null) {
+                throw new BadRequestException("Invoice number " + allocatedNumber + " is already taken. Please try again.");
+            }
+        }
+        return number;
+    }
+
+    /** Saves the invoice, its rollups and stock transaction, and adds its ledger vouchers to {@code vouchers}. */
+    private SalesInvoice persist(PreparedInvoice p, List<LedgerService.Voucher> vouchers) {
+        CreateInvoiceRequest request = p.request;
         SalesInvoice invoice = SalesInvoice.builder()
-                .invoiceNumber(request.getInvoiceNumber())
-                .branch(branch)
-                .customer(customer)
-                .user(user)
+                .invoiceNumber(p.invoiceNumber)
+                .branch(p.branch)
+                .customer(p.customer)
+                .user(p.user)
                 .invoiceDate(request.getInvoiceDate())
                 .invoiceTime(request.getInvoiceTime())
-                .transactionType(invoiceTxnType)
-                .deliveryMode(deliveryMode)
+                .transactionType(p.invoiceTxnType)
+                .deliveryMode(p.deliveryMode)
                 .isCashCustomer(Boolean.TRUE.equals(request.getIsCashCustomer()))
-                .grandTotal(grandTotal)
-                .additionalDiscount(additionalDiscount)
-                .additionalExpenses(additionalExpenses)
-                .netTotal(netTotal)
-                .amountReceived(amountReceived)
-                .changeReturned(changeReturned)
-                .invoiceStatus(invoiceStatus)
+                .grandTotal(p.grandTotal)
+                .additionalDiscount(request.getAdditionalDiscount() != null ? request.getAdditionalDiscount() : BigDecimal.ZERO)
+                .additionalExpenses(request.getAdditionalExpenses() != null ? request.getAdditionalExpenses() : BigDecimal.ZERO)
+                .netTotal(p.netTotal)
+                .amountReceived(p.amountReceived)
+                .changeReturned(p.changeReturned)
+                .invoiceStatus(p.saveAsDraft ? "DRAFT" : "COMPLETED")
                 .printWithoutHeader(Boolean.TRUE.equals(request.getPrintWithoutHeader()))
                 .printWithoutBalance(Boolean.TRUE.equals(request.getPrintWithoutBalance()))
                 .remarks(request.getRemarks())
@@ -175,69 +346,87 @@ public class SalesInvoiceService {
                 .billingAdda(request.getBillingAdda())
                 .build();
 
-        for (SalesInvoiceItem it : invoiceItems) {
+        for (SalesInvoiceItem it : p.invoiceItems) {
             it.setSalesInvoice(invoice);
             invoice.getItems().add(it);
         }
         salesInvoiceRepository.saveAndFlush(invoice);
+        salesRollupService.recordCreated(invoice);
 
-        if (!saveAsDraft) {
-            String recordNo = "ST-" + (isReturn ? "IN" : "OUT") + "-" + request.getInvoiceNumber() + "-" + UUID.randomUUID().toString().substring(0, 8);
-            while (stockTransactionRepository.existsByRecordNo(recordNo)) {
-                recordNo = "ST-" + (isReturn ? "IN" : "OUT") + "-" + request.getInvoiceNumber() + "-" + UUID.randomUUID().toString().substring(0, 8);
-            }
+        if (!p.saveAsDraft) {
+            String recordNo = recordNumberAllocator.next(p.isReturn ? "ST-IN" : "ST-OUT");
 
             StockTransaction stockTxn = StockTransaction.builder()
                     .recordNo(recordNo)
-                    .branch(branch)
+                    .branch(p.branch)
                     .transactionDate(request.getInvoiceDate())
-                    .transactionType(stockType)
-                    .description((isReturn ? "Return" : "Sale") + ", Invoice # " + request.getInvoiceNumber())
-                    .user(user)
+                    .transactionType(p.stockType)
+                    .description((p.isReturn ? "Return" : "Sale") + ", Invoice # " + p.invoiceNumber)
+                    .user(p.user)
                     .refSalesInvoice(invoice)
                     .build();
-            for (StockTransactionItem sti : stockItems) {
+            for (StockTransactionItem sti : p.stockItems) {
                 sti.setStockTransaction(stockTxn);
                 stockTxn.getItems().add(sti);
             }
             stockTransactionRepository.save(stockTxn);
+            dashboardResultCache.invalidate(DashboardResultCache.Source.STOCK, (LocalDate) null);
         }
 
-        if (!saveAsDraft && customer != null && netTotal.compareTo(BigDecimal.ZERO) > 0) {
-            Account revenueAccount = accountRepository.findFirstByAccountTypeAndIsActiveTrue(ACCOUNT_TYPE_REVENUE)
-                    .orElseThrow(() -> new BadRequestException("Sales Revenue account not found. Add an account with type 'Revenue' (e.g. code REV001)."));
-            String voucherNo = "VOU-" + request.getInvoiceNumber().replaceFirst("^INV-", "");
-            ledgerService.post(
-                    voucherNo,
+        String suffix = p.invoiceNumber.replaceFirst("^INV-", "");
+        if (p.revenueAccountId != null) {
+            vouchers.add(LedgerService.Voucher.pair(
+                    "VOU-" + suffix,
                     request.getInvoiceDate(),
-                    "Sale, Invoice # " + request.getInvoiceNumber(),
-                    customer.getAccount().getAccountId(),
-                    revenueAccount.getAccountId(),
-                    netTotal,
+                    "Sale, Invoice # " + p.invoiceNumber,
+                    p.customer.getAccount().getAccountId(),
+                    p.revenueAccountId,
+                    p.netTotal,
                     REF_TYPE_SALE,
                     invoice.getSalesInvoiceId().longValue(),
-                    user.getUserId()
-            );
+                    p.user.getUserId()
+            ));
         }
-
-        if (!saveAsDraft && customer != null && amountReceived.compareTo(BigDecimal.ZERO) > 0) {
-            Account cashAccount = accountRepository.findFirstByAccountTypeAndIsActiveTrue(ACCOUNT_TYPE_CASH)
-                    .orElseThrow(() -> new BadRequestException("POS Cash account not found. Add an account with type 'Cash' (e.g. code POS-CASH or CASH001)."));
-            String voucherNo = "PAY-" + request.getInvoiceNumber().replaceFirst("^INV-", "");
-            ledgerService.post(
-                    voucherNo,
+        if (p.cashAccountId != null) {
+            vouchers.add(LedgerService.Voucher.pair(
+                    "PAY-" + suffix,
                     request.getInvoiceDate(),
-                    "Payment, Invoice # " + request.getInvoiceNumber(),
-                    cashAccount.getAccountId(),
-                    customer.getAccount().getAccountId(),
-                    amountReceived,
+                    "Payment, Invoice # " + p.invoiceNumber,
+                    p.cashAccountId,
+                    p.customer.getAccount().getAccountId(),
+                    p.amountReceived,
                     REF_TYPE_PAYMENT,
                     invoice.getSalesInvoiceId().longValue(),
-                    user.getUserId()
-            );
+                    p.user.getUserId()
+            ));
         }
+        return invoice;
+    }
 
-        return toResponse(invoice);
+    private static List<Integer> productIds(CreateInvoiceRequest request) {
+        return request.getItems().stream().map(CreateInvoiceItemRequest::getProductId).toList();
+    }
+
+    private Map<Integer, Customer> loadCustomers(List<CreateInvoiceRequest> requests) {
+        Set<Integer> ids = new HashSet<>();
+        for (CreateInvoiceRequest r : requests) {
+            if (r.getCustomerId() != null) ids.add(r.getCustomerId());
+        }
+        Map<Integer, Customer> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            customerRepository.findAllById(ids).forEach(c -> byId.put(c.getCustomerId(), c));
+        }
+        return byId;
+    }
+
+    /** Applies stock changes to the (locked) products, one update per product. */
+    private void applyStock(Map<Integer, BigDecimal> deltas, Map<Integer, Product> lockedProducts) {
+        deltas.forEach((productId, delta) -> {
+            if (delta.signum() == 0) return;
+            Product product = lockedProducts.get(productId);
+            product.setCurrentStock(product.getCurrentStock().add(delta));
+            productRepository.save(product);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -247,23 +436,12 @@ public class SalesInvoiceService {
         return toResponse(invoice);
     }
 
-    /** Returns next sequential invoice number for the given date: INV-YYYYMMDD-NNNN. */
-    @Transactional(readOnly = true)
-    public String getNextInvoiceNumber(LocalDate date) {
-        LocalDate d = date != null ? date : LocalDate.now();
-        String dateStr = d.format(DateTimeFormatter.BASIC_ISO_DATE);
-        String prefix = "INV-" + dateStr + "-";
-        int nextSeq = 1;
-        Optional<SalesInvoice> last = salesInvoiceRepository.findTop1ByInvoiceNumberStartingWithOrderByInvoiceNumberDesc(prefix);
-        if (last.isPresent()) {
-            String num = last.get().getInvoiceNumber();
-            if (num != null && num.length() >= 4) {
-                try {
-                    nextSeq = Integer.parseInt(num.substring(num.length() - 4), 10) + 1;
-                } catch (NumberFormatException ignored) { }
-            }
-        }
-        return prefix + String.format("%04d", Math.min(9999, Math.max(1, nextSeq)));
+    /**
+     * Preview of the next invoice number for the date (and optional branch): INV-YYYYMMDD-NNNN. Nothing is
+     * used up; the number is allocated when the invoice is created without one.
+     */
+    public String getNextInvoiceNumber(LocalDate date, Integer branchId) {
+        return invoiceNumberAllocator.peek(branchId, date);
     }
 
     @Transactional(readOnly = true)
@@ -288,17 +466,35 @@ public class SalesInvoiceService {
         return page.map(this::toSummaryDto);
     }
 
+    /**
+     * Sales History by keyset, newest first: seeks past {@code cursor} (the previous page's {@code nextCursor})
+     * instead of skipping rows, and runs no count query, so every page costs the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<InvoiceSummaryDto> scroll(LocalDate fromDate, LocalDate toDate, Integer customerId, String cursor, int size) {
+        int limit = KeysetCursor.pageSize(size);
+        LocalDate from = fromDate != null ? fromDate : LocalDate.of(1900, 1, 1);
+        LocalDate to = toDate != null ? toDate : LocalDate.of(9999, 12, 31);
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        List<SalesInvoice> rows = salesInvoiceRepository.findPageBefore(from, to, customerId != null ? customerId : -1,
+                before != null ? before.date() : to, before != null ? (int) before.id() : Integer.MAX_VALUE,
+                PageRequest.of(0, limit + 1));
+        return KeysetCursor.page(rows, limit,
+                inv -> new KeysetCursor(inv.getInvoiceDate(), inv.getSalesInvoiceId()), this::toSummaryDto);
+    }
+
     /** Update invoice header, billing, and print options (Sales History edit). */
     @Transactional(rollbackFor = Exception.class)
     public InvoiceResponse updateInvoice(Integer id, UpdateInvoiceRequest request) {
         SalesInvoice inv = salesInvoiceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", id));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
         BigDecimal oldAmountReceived = inv.getAmountReceived() != null ? inv.getAmountReceived() : BigDecimal.ZERO;
 
         if (request.getInvoiceDate() != null) inv.setInvoiceDate(request.getInvoiceDate());
         if (request.getInvoiceTime() != null) inv.setInvoiceTime(request.getInvoiceTime());
         if (request.getDeliveryModeId() != null) {
-            inv.setDeliveryMode(deliveryModeRepository.findById(request.getDeliveryModeId()).orElse(inv.getDeliveryMode()));
+            inv.setDeliveryMode(referenceDataCache.deliveryMode(request.getDeliveryModeId()).orElse(inv.getDeliveryMode()));
         }
         if (request.getAdditionalDiscount() != null) inv.setAdditionalDiscount(request.getAdditionalDiscount());
         if (request.getAdditionalExpenses() != null) inv.setAdditionalExpenses(request.getAdditionalExpenses());
@@ -313,41 +509,42 @@ public class SalesInvoiceService {
         if (request.getChangeReturned() != null) inv.setChangeReturned(request.getChangeReturned());
         recalcNetTotal(inv);
         salesInvoiceRepository.save(inv);
+        salesRollupService.recordChanged(before, inv);
 
         BigDecimal newAmountReceived = inv.getAmountReceived() != null ? inv.getAmountReceived() : BigDecimal.ZERO;
         Customer customer = inv.getCustomer();
         if (customer != null && customer.getAccount() != null) {
             BigDecimal delta = newAmountReceived.subtract(oldAmountReceived);
             if (delta.compareTo(BigDecimal.ZERO) > 0) {
-                Account cashAccount = accountRepository.findFirstByAccountTypeAndIsActiveTrue(ACCOUNT_TYPE_CASH)
+                Integer cashAccountId = referenceDataCache.accountIdByType(ACCOUNT_TYPE_CASH)
                         .orElseThrow(() -> new BadRequestException("POS Cash account not found. Add an account with type 'Cash' (e.g. code POS-CASH)."));
                 String voucherNo = "PAY-" + inv.getInvoiceNumber().replaceFirst("^INV-", "") + "-ADJ";
-                ledgerService.post(
+                ledgerService.postBatch(List.of(LedgerService.Voucher.pair(
                         voucherNo,
                         inv.getInvoiceDate(),
                         "Payment (adj), Invoice # " + inv.getInvoiceNumber(),
-                        cashAccount.getAccountId(),
+                        cashAccountId,
                         customer.getAccount().getAccountId(),
                         delta,
                         REF_TYPE_PAYMENT,
                         inv.getSalesInvoiceId().longValue(),
                         inv.getUser() != null ? inv.getUser().getUserId() : null
-                );
+                )));
             } else if (delta.compareTo(BigDecimal.ZERO) < 0) {
-                Account cashAccount = accountRepository.findFirstByAccountTypeAndIsActiveTrue(ACCOUNT_TYPE_CASH)
+                Integer cashAccountId = referenceDataCache.accountIdByType(ACCOUNT_TYPE_CASH)
                         .orElseThrow(() -> new BadRequestException("POS Cash account not found. Add an account with type 'Cash' (e.g. code POS-CASH)."));
                 String voucherNo = "PAY-REV-" + inv.getInvoiceNumber().replaceFirst("^INV-", "");
-                ledgerService.post(
+                ledgerService.postBatch(List.of(LedgerService.Voucher.pair(
                         voucherNo,
                         inv.getInvoiceDate(),
                         "Payment reversal (adj), Invoice # " + inv.getInvoiceNumber(),
                         customer.getAccount().getAccountId(),
-                        cashAccount.getAccountId(),
+                        cashAccountId,
                         delta.negate(),
                         REF_TYPE_PAYMENT,
                         inv.getSalesInvoiceId().longValue(),
                         inv.getUser() != null ? inv.getUser().getUserId() : null
-                );
+                )));
             }
         }
 
@@ -359,6 +556,7 @@ public class SalesInvoiceService {
     public InvoiceResponse addItem(Integer invoiceId, AddInvoiceItemRequest request) {
         SalesInvoice inv = salesInvoiceRepository.findByIdWithItems(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product", request.getProductId()));
         if (product.getDeletedAt() != null) throw new ResourceNotFoundException("Product", request.getProductId());
@@ -366,7 +564,7 @@ public class SalesInvoiceService {
         BigDecimal unitPrice = request.getUnitPrice() != null ? request.getUnitPrice() : product.getSellingPrice();
         BigDecimal lineTotal = qty.multiply(unitPrice);
         UnitOfMeasure uom = request.getUomId() != null
-                ? unitOfMeasureRepository.findById(request.getUomId()).orElse(product.getUom())
+                ? referenceDataCache.uom(request.getUomId()).orElse(product.getUom())
                 : product.getUom();
         int sortOrder = inv.getItems().isEmpty() ? 0 : inv.getItems().stream().mapToInt(SalesInvoiceItem::getSortOrder).max().orElse(0) + 1;
         SalesInvoiceItem item = SalesInvoiceItem.builder()
@@ -381,6 +579,7 @@ public class SalesInvoiceService {
         inv.getItems().add(item);
         recalcNetTotal(inv);
         salesInvoiceRepository.saveAndFlush(inv);
+        salesRollupService.recordChanged(before, inv);
         return getById(invoiceId);
     }
 
@@ -389,6 +588,7 @@ public class SalesInvoiceService {
     public InvoiceResponse updateItem(Integer invoiceId, Integer itemId, UpdateInvoiceItemRequest request) {
         SalesInvoice inv = salesInvoiceRepository.findByIdWithItems(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
         SalesInvoiceItem item = inv.getItems().stream()
                 .filter(i -> i.getSalesInvoiceItemId().equals(itemId))
                 .findFirst()
@@ -396,11 +596,12 @@ public class SalesInvoiceService {
         if (request.getQuantity() != null) item.setQuantity(request.getQuantity());
         if (request.getUnitPrice() != null) item.setUnitPrice(request.getUnitPrice());
         if (request.getUomId() != null) {
-            item.setUom(unitOfMeasureRepository.findById(request.getUomId()).orElse(item.getUom()));
+            item.setUom(referenceDataCache.uom(request.getUomId()).orElse(item.getUom()));
         }
         item.setLineTotal(item.getQuantity().multiply(item.getUnitPrice()));
         recalcNetTotal(inv);
         salesInvoiceRepository.save(inv);
+        salesRollupService.recordChanged(before, inv);
         return getById(invoiceId);
     }
 
@@ -409,14 +610,16 @@ public class SalesInvoiceService {
     public InvoiceResponse deleteItem(Integer invoiceId, Integer itemId) {
         SalesInvoice inv = salesInvoiceRepository.findByIdWithItems(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice", invoiceId));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
         boolean removed = inv.getItems().removeIf(i -> i.getSalesInvoiceItemId().equals(itemId));
         if (!removed) throw new ResourceNotFoundException("Invoice item", itemId);
         recalcNetTotal(inv);
         salesInvoiceRepository.save(inv);
+        salesRollupService.recordChanged(before, inv);
         return getById(invoiceId);
     }
 
-    private void recalcNetTotal(SalesInvoice inv) {
+    static void recalcNetTotal(SalesInvoice inv) {
         BigDecimal grand = inv.getItems().stream()
                 .map(SalesInvoiceItem::getLineTotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -457,7 +660,7 @@ public class SalesInvoiceService {
         return page.getContent().isEmpty() ? null : toSummaryDto(page.getContent().get(0));
     }
 
-    private InvoiceResponse toResponse(SalesInvoice inv) {
+    static InvoiceResponse toResponse(SalesInvoice inv) {
         List<InvoiceItemResponse> itemDtos = new ArrayList<>();
         for (SalesInvoiceItem it : inv.getItems()) {
             Product p = it.getProduct();
@@ -0,0 +1,147 @@
+package com.pos.service;
+
+import com.pos.domain.SalesInvoice;
+import com.pos.domain.SalesInvoiceItem;
+import com.pos.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps daily_sales_rollups and daily_product_sales_rollups in step with sales invoices, in the same
+ * transaction as the invoice write. Edits are applied as "remove what the invoice contributed before,
+ * add what it contributes now", netted per row so an unchanged day/product is not touched.
+ * <p>
+ * The per-branch row for a day is split into {@link #SLOTS} slots by invoice id so concurrent checkouts
+ * rarely wait on the same row; product rows are updated in product id order, the same order
+ * {@link ProductLockService} locks products in. Cached dashboard results for the affected days are evicted on commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    static final int SLOTS = 8;
+    private static final int NO_BRANCH = 0;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final DashboardResultCache dashboardResultCache;
+
+    /** What the invoice currently adds to the rollups. Take this before editing an invoice. */
+    public Contribution capture(SalesInvoice inv) {
+        Map<Integer, ProductLine> products = new TreeMap<>();
+        for (SalesInvoiceItem item : inv.getItems()) {
+            products.merge(item.getProduct().getProductId(),
+                    new ProductLine(nz(item.getQuantity()), nz(item.getLineTotal())), ProductLine::plus);
+        }
+        boolean cash = Boolean.TRUE.equals(inv.getIsCashCustomer());
+        return new Contribution(
+                inv.getInvoiceDate(),
+                inv.getBranch() != null ? inv.getBranch().getBranchId() : NO_BRANCH,
+                Math.floorMod(inv.getSalesInvoiceId(), SLOTS),
+                nz(inv.getNetTotal()),
+                cash,
+                !cash && inv.getCustomer() != null,
+                Map.copyOf(products)
+        );
+    }
+
+    /** Adds a newly saved invoice (its id must be assigned). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(SalesInvoice inv) {
+        apply(null, capture(inv));
+    }
+
+    /** Moves the invoice's contribution from {@code before} (see {@link #capture}) to its current state. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Contribution before, SalesInvoice after) {
+        apply(before, capture(after));
+    }
+
+    private void apply(Contribution before, Contribution after) {
+        Map<SalesKey, SalesDelta> sales = new HashMap<>();
+        Map<ProductKey, ProductLine> products = new TreeMap<>(ProductKey.ORDER);
+        if (before != null) collect(before, -1, sales, products);
+        collect(after, 1, sales, products);
+
+        sales.forEach((key, d) -> {
+            if (d.isZero()) return;
+            salesRollupRepository.addSales(key.date(), key.branchId(), key.slot(),
+                    d.netTotal, d.invoiceCount, d.cashTotal, d.creditTotal);
+        });
+        products.forEach((key, line) -> {
+            if (line.isZero()) return;
+            salesRollupRepository.addProductSales(key.date(), key.branchId(), key.productId(),
+                    line.quantity(), line.revenue());
+        });
+        if (before != null && !before.date().equals(after.date())) {
+            dashboardResultCache.invalidate(DashboardResultCache.Source.SALES, before.date(), after.date());
+        } else {
+            dashboardResultCache.invalidate(DashboardResultCache.Source.SALES, after.date());
+        }
+    }
+
+    private static void collect(Contribution c, int sign, Map<SalesKey, SalesDelta> sales, Map<ProductKey, ProductLine> products) {
+        BigDecimal s = BigDecimal.valueOf(sign);
+        SalesDelta d = sales.computeIfAbsent(new SalesKey(c.date(), c.branchId(), c.slot()), k -> new SalesDelta());
+        d.netTotal = d.netTotal.add(c.netTotal().multiply(s));
+        d.invoiceCount += sign;
+        if (c.cash()) d.cashTotal = d.cashTotal.add(c.netTotal().multiply(s));
+        if (c.credit()) d.creditTotal = d.creditTotal.add(c.netTotal().multiply(s));
+        c.products().forEach((productId, line) -> products.merge(
+                new ProductKey(c.date(), c.branchId(), productId),
+                new ProductLine(line.quantity().multiply(s), line.revenue().multiply(s)),
+                ProductLine::plus));
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+
+    /** An invoice's share of the rollups: day, branch and slot row plus quantity/revenue per product. */
+    public record Contribution(
+            LocalDate date,
+            int branchId,
+            int slot,
+            BigDecimal netTotal,
+            boolean cash,
+            boolean credit,
+            Map<Integer, ProductLine> products
+    ) {}
+
+    public record ProductLine(BigDecimal quantity, BigDecimal revenue) {
+        ProductLine plus(ProductLine o) {
+            return new ProductLine(quantity.add(o.quantity), revenue.add(o.revenue));
+        }
+
+        boolean isZero() {
+            return quantity.signum() == 0 && revenue.signum() == 0;
+        }
+    }
+
+    private record SalesKey(LocalDate date, int branchId, int slot) {}
+
+    private record ProductKey(LocalDate date, int branchId, int productId) {
+        static final Comparator<ProductKey> ORDER = Comparator.comparingInt(ProductKey::productId)
+                .thenComparing(ProductKey::date)
+                .thenComparingInt(ProductKey::branchId);
+    }
+
+    private static final class SalesDelta {
+        BigDecimal netTotal = BigDecimal.ZERO;
+        int invoiceCount;
+        BigDecimal cashTotal = BigDecimal.ZERO;
+        BigDecimal creditTotal = BigDecimal.ZERO;
+
+        boolean isZero() {
+            return invoiceCount == 0 && netTotal.signum() == 0 && cashTotal.signum() == 0 && creditTotal.signum() == 0;
+        }
+    }
+}
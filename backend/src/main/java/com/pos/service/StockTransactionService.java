@@ -3,20 +3,23 @@ package com.pos.service;
 import com.pos.domain.*;
 import com.pos.dto.*;
 import com.pos.exception.BadRequestException;
-import com.pos.exception.ResourceNotFoundException;
 import com.pos.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -25,17 +28,19 @@ public class StockTransactionService {
 
     private static final String TYPE_STOCK_IN = "STOCK_IN";
     private static final String TYPE_STOCK_OUT = "STOCK_OUT";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("stockTransactionId"));
 
     private final StockTransactionRepository stockTransactionRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
-    private final BranchRepository branchRepository;
-    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final ProductLockService productLockService;
+    private final RecordNumberAllocator recordNumberAllocator;
+    private final ReferenceDataCache referenceDataCache;
+    private final DashboardResultCache dashboardResultCache;
 
     @Transactional(rollbackFor = Exception.class)
     public StockMovementResponse stockIn(StockInRequest request, String username) {
-        TransactionType type = transactionTypeRepository.findByTypeCode(TYPE_STOCK_IN)
+        TransactionType type = referenceDataCache.transactionType(TYPE_STOCK_IN)
                 .orElseThrow(() -> new BadRequestException("Transaction type STOCK_IN not found. Run seed data."));
         return performStockMovement(request.getBranchId(), request.getTransactionDate(), request.getDescription(),
                 request.getItems(), type, username, true, null, null);
@@ -43,7 +48,7 @@ public class StockTransactionService {
 
     @Transactional(rollbackFor = Exception.class)
     public StockMovementResponse stockOut(StockOutRequest request, String username) {
-        TransactionType type = transactionTypeRepository.findByTypeCode(TYPE_STOCK_OUT)
+        TransactionType type = referenceDataCache.transactionType(TYPE_STOCK_OUT)
                 .orElseThrow(() -> new BadRequestException("Transaction type STOCK_OUT not found. Run seed data."));
         return performStockMovement(request.getBranchId(), request.getTransactionDate(), request.getDescription(),
                 request.getItems(), type, username, false, null, null);
@@ -62,22 +67,17 @@ public class StockTransactionService {
             PurchaseOrder refPurchaseOrder
     ) {
         User user = username != null ? userRepository.findByUsernameAndDeletedAtIsNull(username).orElse(null) : null;
-        Branch branch = branchId != null ? branchRepository.findById(branchId).orElse(null) : null;
+        Branch branch = referenceDataCache.branch(branchId).orElse(null);
 
-        String recordNo = (isIn ? "ST-IN-" : "ST-OUT-") + UUID.randomUUID().toString().substring(0, 8);
-        while (stockTransactionRepository.existsByRecordNo(recordNo)) {
-            recordNo = (isIn ? "ST-IN-" : "ST-OUT-") + UUID.randomUUID().toString().substring(0, 8);
-        }
+        String recordNo = recordNumberAllocator.next(isIn ? "ST-IN" : "ST-OUT");
 
         List<StockTransactionItem> entityItems = new ArrayList<>();
         BigDecimal multiplier = isIn ? BigDecimal.ONE : BigDecimal.ONE.negate();
+        Map<Integer, Product> lockedProducts = productLockService.lockForUpdate(
+                items.stream().map(StockMovementItemRequest::getProductId).toList());
 
         for (StockMovementItemRequest req : items) {
-            Product product = productRepository.findByIdForUpdate(req.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", req.getProductId()));
-            if (product.getDeletedAt() != null) {
-                throw new ResourceNotFoundException("Product", req.getProductId());
-            }
+            Product product = lockedProducts.get(req.getProductId());
 
             BigDecimal qty = req.getQuantity();
             if (!isIn && product.getCurrentStock().compareTo(qty) < 0) {
@@ -93,7 +93,7 @@ public class StockTransactionService {
                     .product(product)
                     .quantityChange(quantityChange)
                     .priceAtTransaction(req.getPriceAtTransaction())
-                    .uom(req.getUomId() != null ? unitOfMeasureRepository.findById(req.getUomId()).orElse(null) : null)
+                    .uom(referenceDataCache.uom(req.getUomId()).orElse(null))
                     .build();
             entityItems.add(sti);
         }
@@ -113,16 +113,53 @@ public class StockTransactionService {
             st.getItems().add(it);
         }
         stockTransactionRepository.saveAndFlush(st);
+        dashboardResultCache.invalidate(DashboardResultCache.Source.STOCK, (LocalDate) null);
         return toResponse(st);
     }
 
+    /**
+     * Movement listing in two phases: one page of ids (EXISTS filter on the product, no join over the lines), then
+     * those transactions with items, products and users in a single query. Newest first unless {@code sort} is given.
+     */
     @Transactional(readOnly = true)
     public Page<StockMovementResponse> getMovements(java.time.LocalDate fromDate, java.time.LocalDate toDate, Integer productId, Pageable pageable) {
         LocalDate from = fromDate != null ? fromDate : LocalDate.of(1900, 1, 1);
         LocalDate to = toDate != null ? toDate : LocalDate.of(2100, 12, 31);
         Integer pid = productId != null ? productId : -1;
-        Page<StockTransaction> page = stockTransactionRepository.findByDateRangeAndProduct(from, to, pid, pageable);
-        return page.map(this::toResponse);
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST);
+        }
+        Page<Integer> ids = stockTransactionRepository.findIdsByDateRangeAndProduct(from, to, pid, pageable);
+        return new PageImpl<>(loadResponses(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /** Movements by keyset, newest first; pass the previous page's {@code nextCursor} as {@code cursor}. No count query. */
+    @Transactional(readOnly = true)
+    public CursorPage<StockMovementResponse> scrollMovements(LocalDate fromDate, LocalDate toDate, Integer productId, String cursor, int size) {
+        int limit = KeysetCursor.pageSize(size);
+        LocalDate from = fromDate != null ? fromDate : LocalDate.of(1900, 1, 1);
+        LocalDate to = toDate != null ? toDate : LocalDate.of(2100, 12, 31);
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        List<Integer> ids = stockTransactionRepository.findIdsBefore(from, to, productId != null ? productId : -1,
+                before != null ? before.date() : to, before != null ? (int) before.id() : Integer.MAX_VALUE,
+                PageRequest.of(0, limit + 1));
+        return KeysetCursor.page(loadResponses(ids), limit,
+                r -> new KeysetCursor(r.getTransactionDate(), r.getStockTransactionId()), r -> r);
+    }
+
+    /** Loads the page's transactions with their items, products and users in one query, in the order of {@code ids}. */
+    private List<StockMovementResponse> loadResponses(List<Integer> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Integer, StockTransaction> byId = new HashMap<>();
+        for (StockTransaction st : stockTransactionRepository.findAllWithDetails(ids)) {
+            byId.put(st.getStockTransactionId(), st);
+        }
+        List<StockMovementResponse> responses = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            StockTransaction st = byId.get(id);
+            if (st != null) responses.add(toResponse(st));
+        }
+        return responses;
     }
 
     private StockMovementResponse toResponse(StockTransaction st) {
@@ -0,0 +1,30 @@
+package com.pos.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCounterTest {
+
+    @Test
+    void nestedScopes_statementCountsTowardsEveryOpenScope() {
+        try (QueryCounter.Scope outer = QueryCounter.open()) {
+            QueryCounter.increment();
+            try (QueryCounter.Scope inner = QueryCounter.open()) {
+                QueryCounter.increment();
+                QueryCounter.increment();
+                assertThat(inner.count()).isEqualTo(2);
+            }
+            QueryCounter.increment();
+            assertThat(outer.count()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void noOpenScope_statementsIgnored() {
+        QueryCounter.increment();
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            assertThat(scope.count()).isZero();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pos.config;
+
+import com.pos.dto.InvoiceItemResponse;
+import com.pos.dto.InvoiceResponse;
+import com.pos.exception.BadRequestException;
+import com.pos.service.SalesInvoiceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private Signature signature;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ServiceMetricsAspect aspect = new ServiceMetricsAspect(registry);
+
+    @BeforeEach
+    void createInvoiceCall() {
+        when(pjp.getSignature()).thenReturn(signature);
+        when(signature.getDeclaringType()).thenReturn(SalesInvoiceService.class);
+        when(signature.getName()).thenReturn("createInvoice");
+    }
+
+    @Test
+    void savedInvoice_timedAndCountedByBranchAndType() throws Throwable {
+        InvoiceResponse invoice = InvoiceResponse.builder()
+                .branchId(1)
+                .transactionTypeCode("SALE")
+                .items(List.of(new InvoiceItemResponse(), new InvoiceItemResponse(), new InvoiceItemResponse()))
+                .build();
+        when(pjp.proceed()).thenReturn(invoice);
+
+        assertThat(aspect.time(pjp)).isSameAs(invoice);
+
+        assertThat(registry.get(ServiceMetricsAspect.CALLS)
+                .tags("service", "SalesInvoiceService", "method", "createInvoice", "outcome", "success",
+                        "branch", "1", "type", "SALE")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("pos.invoices.created").tags("branch", "1", "type", "SALE").counter().count()).isEqualTo(1);
+        assertThat(registry.get("pos.invoice.lines").tags("branch", "1", "type", "SALE").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectedInvoice_timedAsRejectedAndNotCounted() throws Throwable {
+        when(pjp.proceed()).thenThrow(new BadRequestException("Insufficient stock"));
+
+        assertThatThrownBy(() -> aspect.time(pjp)).isInstanceOf(BadRequestException.class);
+
+        assertThat(registry.get(ServiceMetricsAspect.CALLS)
+                .tags("outcome", "rejected", "exception", "BadRequestException", "branch", "none", "type", "none")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.find("pos.invoices.created").counter()).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package com.pos.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static com.pos.security.PrincipalCacheTest.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private final JwtTokenProvider tokenProvider =
+            new JwtTokenProvider("test-jwt-secret-key-at-least-32-characters-long", 60_000);
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService, new PrincipalCache(60_000, 10));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void roleClaim_isUsedAndUserIsLoadedOnce() throws Exception {
+        when(userDetailsService.loadUserByUsername("cashier")).thenReturn(user("cashier", true, "ROLE_CASHIER"));
+        String token = tokenProvider.generateToken("cashier", "manager");
+
+        Authentication first = authenticate(token);
+        SecurityContextHolder.clearContext();
+        Authentication second = authenticate(token);
+
+        assertThat(first.getName()).isEqualTo("cashier");
+        assertThat(first.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_MANAGER");
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_MANAGER");
+        verify(userDetailsService, times(1)).loadUserByUsername("cashier");
+    }
+
+    @Test
+    void tokenWithoutRole_fallsBackToStoredAuthorities() throws Exception {
+        when(userDetailsService.loadUserByUsername("cashier")).thenReturn(user("cashier", true, "ROLE_CASHIER"));
+
+        Authentication auth = authenticate(tokenProvider.generateToken("cashier", null));
+
+        assertThat(auth).isNotNull();
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_CASHIER");
+    }
+
+    @Test
+    void disabledUser_isNotAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername("cashier")).thenReturn(user("cashier", false, "ROLE_CASHIER"));
+
+        assertThat(authenticate(tokenProvider.generateToken("cashier", "CASHIER"))).isNull();
+    }
+
+    @Test
+    void invalidToken_isIgnored() throws Exception {
+        assertThat(authenticate("not-a-jwt")).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
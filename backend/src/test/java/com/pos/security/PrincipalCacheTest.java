@@ -0,0 +1,89 @@
+package com.pos.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    @Test
+    void get_returnsStoredStateUntilExpired() {
+        MutableClock clock = new MutableClock();
+        PrincipalCache cache = new PrincipalCache(50, 10, clock);
+        cache.put(user("cashier", true, "ROLE_CASHIER"));
+
+        PrincipalCache.CachedPrincipal cached = cache.get("cashier");
+        assertThat(cached).isNotNull();
+        assertThat(cached.enabled()).isTrue();
+        assertThat(cached.authorities()).extracting(Object::toString).containsExactly("ROLE_CASHIER");
+
+        clock.advance(Duration.ofMillis(49));
+        assertThat(cache.get("cashier")).isNotNull();
+        clock.advance(Duration.ofMillis(1));
+        assertThat(cache.get("cashier")).isNull();
+    }
+
+    @Test
+    void put_keepsAtMostMaxSizeEntries() {
+        PrincipalCache cache = new PrincipalCache(60_000, 3);
+        for (int i = 0; i < 10; i++) {
+            cache.put(user("user" + i, true, "ROLE_CASHIER"));
+        }
+
+        long present = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.get("user" + i) != null) present++;
+        }
+        assertThat(present).isLessThanOrEqualTo(3);
+        assertThat(cache.get("user9")).isNotNull();
+    }
+
+    @Test
+    void evict_dropsOnlyThatUser() {
+        PrincipalCache cache = new PrincipalCache(60_000, 10);
+        cache.put(user("cashier", true, "ROLE_CASHIER"));
+        cache.put(user("manager", true, "ROLE_MANAGER"));
+
+        cache.evict("cashier");
+        cache.evict(null);
+
+        assertThat(cache.get("cashier")).isNull();
+        assertThat(cache.get("manager")).isNotNull();
+    }
+
+    /** Fixed clock moved forward by hand. */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-03-05T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    static UserDetails user(String username, boolean enabled, String authority) {
+        return User.withUsername(username).password("").disabled(!enabled).authorities(authority).build();
+    }
+}
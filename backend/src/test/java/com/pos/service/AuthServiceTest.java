@@ -0,0 +1,80 @@
+package com.pos.service;
+
+import com.pos.domain.Role;
+import com.pos.domain.User;
+import com.pos.dto.LoginRequest;
+import com.pos.repository.UserRepository;
+import com.pos.security.JwtTokenProvider;
+import com.pos.security.PrincipalCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.core.userdetails.User.withUsername;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private final PrincipalCache principalCache = new PrincipalCache(60_000, 10);
+
+    @Test
+    void login_evictsCachedPrincipalOfDeactivatedUserWithRightPassword() {
+        principalCache.put(withUsername("cashier").password("").authorities("ROLE_CASHIER").build());
+        when(userRepository.findByUsernameAndDeletedAtIsNull("cashier")).thenReturn(Optional.of(cashier(false)));
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        assertThatThrownBy(() -> authService().login(login("secret")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("User is inactive");
+
+        assertThat(principalCache.get("cashier")).isNull();
+    }
+
+    @Test
+    void login_keepsCachedPrincipalOnWrongPassword() {
+        principalCache.put(withUsername("cashier").password("").authorities("ROLE_CASHIER").build());
+        when(userRepository.findByUsernameAndDeletedAtIsNull("cashier")).thenReturn(Optional.of(cashier(true)));
+        when(passwordEncoder.matches("guess", "hash")).thenReturn(false);
+
+        assertThatThrownBy(() -> authService().login(login("guess")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid username or password");
+
+        assertThat(principalCache.get("cashier")).isNotNull();
+    }
+
+    private AuthService authService() {
+        return new AuthService(userRepository, passwordEncoder,
+                new JwtTokenProvider("test-jwt-secret-key-at-least-32-characters-long", 60_000), principalCache);
+    }
+
+    private static User cashier(boolean active) {
+        return User.builder()
+                .username("cashier")
+                .passwordHash("hash")
+                .isActive(active)
+                .role(Role.builder().roleName("cashier").build())
+                .build();
+    }
+
+    private static LoginRequest login(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("cashier");
+        request.setPassword(password);
+        return request;
+    }
+}
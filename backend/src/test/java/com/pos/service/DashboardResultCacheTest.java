@@ -0,0 +1,80 @@
+package com.pos.service;
+
+import com.pos.service.DashboardResultCache.Key;
+import com.pos.service.DashboardResultCache.Source;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardResultCacheTest {
+
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+    private static final LocalDate FEB_28 = LocalDate.of(2026, 2, 28);
+
+    @Test
+    void get_sharesOneComputationBetweenConcurrentCallers() throws Exception {
+        DashboardResultCache cache = new DashboardResultCache(60_000, 10);
+        Key key = new Key("getProfit", FEB_1, FEB_28, List.of(), Source.SALES);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = pool.submit(() -> cache.get(key, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "v";
+            }));
+            started.await();
+            List<Future<String>> waiters = List.of(
+                    pool.submit(() -> cache.get(key, () -> { calls.incrementAndGet(); return "other"; })),
+                    pool.submit(() -> cache.get(key, () -> { calls.incrementAndGet(); return "other"; })));
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("v");
+            for (Future<String> f : waiters) {
+                assertThat(f.get()).isEqualTo("v");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void invalidate_dropsOnlyEntriesCoveringTheWrittenDate() {
+        DashboardResultCache cache = new DashboardResultCache(60_000, 10);
+        Key february = new Key("getProfit", FEB_1, FEB_28, List.of(), Source.SALES);
+        Key march = new Key("getProfit", LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), List.of(), Source.SALES);
+        Key cashFlow = new Key("getCashFlow", FEB_1, FEB_28, List.of(), Source.LEDGER);
+        cache.put(february, "feb");
+        cache.put(march, "mar");
+        cache.put(cashFlow, "cash");
+
+        cache.invalidate(Source.SALES, LocalDate.of(2026, 2, 14));
+
+        assertThat(cache.get(february)).isNull();
+        assertThat(cache.get(march)).isNotNull();
+        assertThat(cache.get(cashFlow)).isNotNull();
+    }
+
+    @Test
+    void put_staysWithinMaxSize() {
+        DashboardResultCache cache = new DashboardResultCache(60_000, 3);
+        for (int i = 0; i < 10; i++) {
+            cache.put(new Key("getTodaySales", FEB_1.plusDays(i), FEB_1.plusDays(i), List.of(), Source.SALES), i);
+        }
+        assertThat((Map<?, ?>) cache.getNativeCache()).hasSizeLessThanOrEqualTo(3);
+    }
+}
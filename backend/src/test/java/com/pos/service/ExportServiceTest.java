@@ -0,0 +1,73 @@
+package com.pos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pos.repository.LedgerEntryRepository;
+import com.pos.repository.SalesInvoiceRepository;
+import com.pos.repository.StockTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    @Mock
+    private SalesInvoiceRepository salesInvoiceRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Test
+    void exportLedgerEntries_writesQuotedCsvWithHeader() throws Exception {
+        when(ledgerEntryRepository.streamForExport(DAY, DAY, -1)).thenReturn(Stream.<Object[]>of(new Object[]{
+                1, "VOU-1", Date.valueOf(DAY), 5, "CUST001", "Ali, Traders", "Sale \"cash\"",
+                new BigDecimal("100.00"), BigDecimal.ZERO, "SALE", 9L}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service().exportLedgerEntries(DAY, DAY, null, ExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).isEqualTo(String.join(",", ExportService.LEDGER_COLUMNS));
+        assertThat(lines[1]).isEqualTo("1,VOU-1,2026-02-26,5,CUST001,\"Ali, Traders\",\"Sale \"\"cash\"\"\",100.00,0,SALE,9");
+    }
+
+    @Test
+    void exportStockMovements_writesOneJsonObjectPerLine() throws Exception {
+        when(stockTransactionRepository.streamForExport(LocalDate.of(1900, 1, 1), LocalDate.of(9999, 12, 31), 7))
+                .thenReturn(Stream.of(
+                        new Object[]{1, 10, "ST-OUT-1", Date.valueOf(DAY), "STOCK_OUT", null, 7, "P7", "Soap", new BigDecimal("-2.0000"), new BigDecimal("50.00"), "Sale", 3},
+                        new Object[]{2, 11, "ST-IN-1", Date.valueOf(DAY), "STOCK_IN", 1, 7, "P7", "Soap", new BigDecimal("5.0000"), null, "Purchase", null}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service().exportStockMovements(null, null, 7, ExportService.Format.NDJSON, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("}\n");
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"stockTransactionItemId\":1,\"stockTransactionId\":10,\"recordNo\":\"ST-OUT-1\",\"transactionDate\":\"2026-02-26\"");
+        assertThat(lines[1]).startsWith("{\"stockTransactionItemId\":2,\"stockTransactionId\":11,\"recordNo\":\"ST-IN-1\",\"transactionDate\":\"2026-02-26\"");
+        assertThat(lines[0]).contains("\"branchId\":null", "\"quantityChange\":-2.0000");
+        assertThat(lines[1]).contains("\"refSalesInvoiceId\":null");
+    }
+
+    private ExportService service() {
+        return new ExportService(salesInvoiceRepository, ledgerEntryRepository, stockTransactionRepository, new ObjectMapper());
+    }
+}
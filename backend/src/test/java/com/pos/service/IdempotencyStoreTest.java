@@ -0,0 +1,49 @@
+package com.pos.service;
+
+import com.pos.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    @Test
+    void execute_replaysStoredResultForSameKey() {
+        IdempotencyStore store = new IdempotencyStore(60_000, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = store.execute("invoices.create", "cashier", "k1", List.of(1, 2), () -> "sale-" + calls.incrementAndGet());
+        String retry = store.execute("invoices.create", "cashier", "k1", List.of(1, 2), () -> "sale-" + calls.incrementAndGet());
+        String otherUser = store.execute("invoices.create", "manager", "k1", List.of(1, 2), () -> "sale-" + calls.incrementAndGet());
+
+        assertThat(first).isEqualTo("sale-1");
+        assertThat(retry).isEqualTo("sale-1");
+        assertThat(otherUser).isEqualTo("sale-2");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void execute_rejectsKeyReusedForDifferentRequest() {
+        IdempotencyStore store = new IdempotencyStore(60_000, 10);
+        store.execute("stock.in", "cashier", "k2", List.of(1), () -> "done");
+
+        assertThatThrownBy(() -> store.execute("stock.in", "cashier", "k2", List.of(2), () -> "again"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void execute_doesNotStoreFailures() {
+        IdempotencyStore store = new IdempotencyStore(60_000, 10);
+
+        assertThatThrownBy(() -> store.execute("invoices.create", "cashier", "k3", "body", () -> {
+            throw new BadRequestException("Insufficient stock");
+        })).isInstanceOf(BadRequestException.class);
+        String retry = store.execute("invoices.create", "cashier", "k3", "body", () -> "sale");
+
+        assertThat(retry).isEqualTo("sale");
+    }
+}
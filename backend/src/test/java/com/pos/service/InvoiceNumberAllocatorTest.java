@@ -0,0 +1,119 @@
+package com.pos.service;
+
+import com.pos.domain.InvoiceNumberCounter;
+import com.pos.domain.InvoiceNumberCounterId;
+import com.pos.repository.InvoiceNumberCounterRepository;
+import com.pos.repository.SalesInvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceNumberAllocatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 5);
+    private static final long IDLE_EVICT_MS = 600_000;
+
+    @Mock
+    private InvoiceNumberCounterRepository counterRepository;
+
+    @Mock
+    private SalesInvoiceRepository salesInvoiceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /** Stands in for invoice_number_counters. */
+    private final Map<InvoiceNumberCounterId, InvoiceNumberCounter> counters = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(salesInvoiceRepository.maxSequenceForPrefix(anyString())).thenReturn(null);
+        lenient().when(counterRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(counters.get(inv.getArgument(0))));
+        lenient().when(counterRepository.findForUpdate(anyInt(), any()))
+                .thenAnswer(inv -> Optional.ofNullable(counters.get(new InvoiceNumberCounterId(inv.getArgument(0), inv.getArgument(1)))));
+        lenient().when(counterRepository.insertIfAbsent(anyInt(), any(), anyInt())).thenAnswer(inv -> {
+            InvoiceNumberCounterId key = new InvoiceNumberCounterId(inv.getArgument(0), inv.getArgument(1));
+            counters.putIfAbsent(key, InvoiceNumberCounter.builder()
+                    .branchId(key.getBranchId()).businessDate(key.getBusinessDate()).nextValue(inv.getArgument(2)).build());
+            return 1;
+        });
+    }
+
+    @Test
+    void peek_doesNotUseUpNumbers() {
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(counterRepository, salesInvoiceRepository, transactionManager, 5, IDLE_EVICT_MS);
+
+        assertThat(allocator.peek(null, DAY)).isEqualTo("INV-20240305-0001");
+        assertThat(allocator.peek(null, DAY)).isEqualTo("INV-20240305-0001");
+        verify(counterRepository, never()).insertIfAbsent(anyInt(), any(), anyInt());
+
+        assertThat(allocator.next(null, DAY)).isEqualTo("INV-20240305-0001");
+        assertThat(allocator.peek(null, DAY)).isEqualTo("INV-20240305-0002");
+        assertThat(allocator.next(null, DAY)).isEqualTo("INV-20240305-0002");
+    }
+
+    @Test
+    void peek_continuesAfterExistingInvoicesAndReservedBlocks() {
+        lenient().when(salesInvoiceRepository.maxSequenceForPrefix("INV-20240305-3-")).thenReturn(41);
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(counterRepository, salesInvoiceRepository, transactionManager, 2, IDLE_EVICT_MS);
+
+        assertThat(allocator.peek(3, DAY)).isEqualTo("INV-20240305-3-0042");
+        assertThat(allocator.next(3, DAY)).isEqualTo("INV-20240305-3-0042");
+        assertThat(allocator.next(3, DAY)).isEqualTo("INV-20240305-3-0043");
+        // Block used up: the preview falls back to the counter's high-water mark
+        assertThat(allocator.peek(3, DAY)).isEqualTo("INV-20240305-3-0044");
+    }
+
+    @Test
+    void next_keepsBranchesAndDaysApartAndKeepsBlocksInUse() {
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(counterRepository, salesInvoiceRepository, transactionManager, 20, IDLE_EVICT_MS);
+
+        assertThat(allocator.next(1, DAY)).isEqualTo("INV-20240305-1-0001");
+        assertThat(allocator.next(2, DAY)).isEqualTo("INV-20240305-2-0001");
+        assertThat(allocator.next(1, DAY.plusDays(1))).isEqualTo("INV-20240306-1-0001");
+        // A back-dated invoice after the new day opened still draws on DAY's block
+        assertThat(allocator.next(1, DAY)).isEqualTo("INV-20240305-1-0002");
+    }
+
+    @Test
+    void next_dropsIdleBlocksWhenAnotherKeyOpens() {
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(counterRepository, salesInvoiceRepository, transactionManager, 20, 0);
+
+        assertThat(allocator.next(1, DAY)).isEqualTo("INV-20240305-1-0001");
+        assertThat(allocator.next(1, DAY.plusDays(1))).isEqualTo("INV-20240306-1-0001");
+        // DAY's block had gone idle, so it was dropped and the rest of it is skipped
+        assertThat(allocator.nextReserved(1, DAY)).isNull();
+        assertThat(allocator.next(1, DAY)).isEqualTo("INV-20240305-1-0021");
+    }
+
+    @Test
+    void nextReserved_handsOutOnlyNumbersAlreadyInMemory() {
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(counterRepository, salesInvoiceRepository, transactionManager, 2, IDLE_EVICT_MS);
+
+        assertThat(allocator.nextReserved(null, DAY)).isNull();
+        assertThat(allocator.next(null, DAY)).isEqualTo("INV-20240305-0001");
+        assertThat(allocator.nextReserved(null, DAY)).isEqualTo("INV-20240305-0002");
+        assertThat(allocator.nextReserved(null, DAY)).isNull();
+        verify(counterRepository, times(1)).insertIfAbsent(anyInt(), any(), anyInt());
+    }
+}
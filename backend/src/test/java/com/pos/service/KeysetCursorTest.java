@@ -0,0 +1,64 @@
+package com.pos.service;
+
+import com.pos.dto.CursorPage;
+import com.pos.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    private record Row(LocalDate date, int id) {
+    }
+
+    @Test
+    void encodeAndDecode_roundTrip() {
+        KeysetCursor cursor = new KeysetCursor(DAY, 4711);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void decode_rejectsIdOutsideIntRange() {
+        String tooLarge = new KeysetCursor(DAY, Integer.MAX_VALUE + 1L).encode();
+
+        assertThatThrownBy(() -> KeysetCursor.decode(tooLarge)).isInstanceOf(BadRequestException.class);
+        assertThat(KeysetCursor.decode(new KeysetCursor(DAY, Integer.MAX_VALUE).encode()).id()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void page_usesExtraRowOnlyToDetectNextPage() {
+        List<Row> rows = List.of(new Row(DAY, 9), new Row(DAY, 7), new Row(DAY.minusDays(1), 12));
+
+        CursorPage<Integer> page = KeysetCursor.page(rows, 2, r -> new KeysetCursor(r.date(), r.id()), Row::id);
+
+        assertThat(page.getContent()).containsExactly(9, 7);
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor(DAY, 7));
+    }
+
+    @Test
+    void page_lastPageHasNoCursor() {
+        CursorPage<Integer> page = KeysetCursor.page(List.of(new Row(DAY, 3)), 2,
+                r -> new KeysetCursor(r.date(), r.id()), Row::id);
+
+        assertThat(page.getContent()).containsExactly(3);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSize_defaultsAndCaps() {
+        assertThat(KeysetCursor.pageSize(0)).isEqualTo(20);
+        assertThat(KeysetCursor.pageSize(500)).isEqualTo(100);
+        assertThat(KeysetCursor.pageSize(50)).isEqualTo(50);
+    }
+}
@@ -0,0 +1,140 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.exception.BadRequestException;
+import com.pos.exception.ResourceNotFoundException;
+import com.pos.repository.AccountRepository;
+import com.pos.repository.LedgerEntryRepository;
+import com.pos.repository.LedgerOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerOutboxServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    @Mock
+    private LedgerOutboxRepository outboxRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drainOnce_postsPendingVouchersAndDropsOnesAlreadyInLedger() {
+        when(outboxRepository.claim(10, 100)).thenReturn(List.of(
+                row(1L, "VOU-1", 5, 2, "100.00"),
+                row(2L, "PAY-1", 3, 5, "60.00")));
+        when(ledgerEntryRepository.findExistingVoucherNos(any())).thenReturn(List.of("VOU-1"));
+
+        int taken = service(true).drainOnce();
+
+        assertThat(taken).isEqualTo(2);
+        ArgumentCaptor<List<LedgerService.Voucher>> posted = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).postBatch(posted.capture());
+        assertThat(posted.getValue()).extracting(LedgerService.Voucher::voucherNo).containsExactly("PAY-1");
+        assertThat(posted.getValue().get(0).lines()).containsExactly(
+                LedgerService.Line.debit(3, new BigDecimal("60.00")),
+                LedgerService.Line.credit(5, new BigDecimal("60.00")));
+        verify(outboxRepository).deletePosted(List.of(1L, 2L));
+    }
+
+    @Test
+    void drainOnce_recordsFailureOfRowThatCannotBePosted() {
+        Object[] bad = row(7L, "VOU-7", 5, 2, "10.00");
+        when(outboxRepository.claim(10, 100)).thenReturn(List.<Object[]>of(bad));
+        when(outboxRepository.findPendingIds(10, 100)).thenReturn(List.of(7L));
+        when(outboxRepository.claimById(7L, 10)).thenReturn(List.<Object[]>of(bad));
+        doThrow(new BadRequestException("Account is inactive")).when(ledgerService).postBatch(anyList());
+
+        service(true).drainOnce();
+
+        verify(outboxRepository).recordFailure(7L, "Account is inactive");
+    }
+
+    @Test
+    void enqueue_postsImmediatelyWhenDisabled() {
+        List<LedgerService.Voucher> vouchers = List.of(
+                LedgerService.Voucher.pair("VOU-3", DAY, "Sale", 5, 2, new BigDecimal("100.00"), "SALE", 3L, null));
+
+        service(false).enqueue(vouchers);
+
+        verify(ledgerService).postBatch(vouchers);
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void enqueue_rejectsInactiveAccountBeforeQueueing() {
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(account(5, true), account(2, false)));
+        List<LedgerService.Voucher> vouchers = List.of(
+                LedgerService.Voucher.pair("VOU-4", DAY, "Sale", 5, 2, new BigDecimal("100.00"), "SALE", 4L, null));
+
+        assertThatThrownBy(() -> service(true).enqueue(vouchers))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("inactive");
+        verifyNoInteractions(outboxRepository, ledgerService);
+    }
+
+    @Test
+    void enqueue_rejectsMissingAccountBeforeQueueing() {
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(account(5, true)));
+        List<LedgerService.Voucher> vouchers = List.of(
+                LedgerService.Voucher.pair("VOU-5", DAY, "Sale", 5, 99, new BigDecimal("100.00"), "SALE", 5L, null));
+
+        assertThatThrownBy(() -> service(true).enqueue(vouchers)).isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(outboxRepository, ledgerService);
+    }
+
+    @Test
+    void failedGauge_countsRowsThatUsedUpTheirAttempts() {
+        when(outboxRepository.countFailed(10)).thenReturn(3L);
+
+        service(true);
+
+        assertThat(meterRegistry.get("pos.ledger.outbox.failed").gauge().value()).isEqualTo(3.0);
+    }
+
+    private LedgerOutboxService service(boolean enabled) {
+        return new LedgerOutboxService(outboxRepository, ledgerEntryRepository, accountRepository, ledgerService,
+                transactionManager, meterRegistry, enabled, 100, 10, 2000, 1);
+    }
+
+    private static Account account(int id, boolean active) {
+        return Account.builder().accountId(id).isActive(active).build();
+    }
+
+    private static Object[] row(long id, String voucherNo, int debitAccountId, int creditAccountId, String amount) {
+        return new Object[]{id, voucherNo, DAY, "Sale", debitAccountId, creditAccountId, new BigDecimal(amount), "SALE", 9L, null};
+    }
+}
@@ -0,0 +1,192 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.domain.LedgerEntry;
+import com.pos.dto.LedgerReportDto;
+import com.pos.exception.BadRequestException;
+import com.pos.repository.AccountPeriodBalanceRepository;
+import com.pos.repository.AccountRepository;
+import com.pos.repository.LedgerEntryRepository;
+import com.pos.repository.UserRepository;
+import com.pos.service.LedgerService.Line;
+import com.pos.service.LedgerService.Voucher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+    private static final LocalDate PERIOD = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+
+    @Mock
+    private AccountBalanceService accountBalanceService;
+
+    @Mock
+    private DashboardResultCache dashboardResultCache;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void postBatch_writesAllEntriesAndNetsEachAccountOnce() {
+        Account customer = account(1, "Customer");
+        Account revenue = account(2, "Revenue");
+        Account cash = account(3, "Cash");
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(customer, revenue, cash));
+
+        ledgerService.postBatch(List.of(
+                Voucher.pair("VOU-1", DAY, "Sale", 1, 2, new BigDecimal("100.00"), "SALE", 9L, null),
+                Voucher.pair("PAY-1", DAY, "Payment", 3, 1, new BigDecimal("60.00"), "PAYMENT", 9L, null)));
+
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).insertAll(entries.capture());
+        assertThat(entries.getValue()).hasSize(4);
+        assertThat(customer.getCurrentBalance()).isEqualByComparingTo("40.00");
+        assertThat(customer.getBalanceType()).isEqualTo("Dr");
+        assertThat(revenue.getCurrentBalance()).isEqualByComparingTo("-100.00");
+        assertThat(revenue.getBalanceType()).isEqualTo("Cr");
+        verify(accountRepository, times(3)).save(any(Account.class));
+        verify(accountPeriodBalanceRepository).addMovement(1, PERIOD, 0, new BigDecimal("100.00"), new BigDecimal("60.00"));
+        verify(accountPeriodBalanceRepository).addMovement(2, PERIOD, 0, BigDecimal.ZERO, new BigDecimal("100.00"));
+        verify(accountPeriodBalanceRepository).addMovement(3, PERIOD, 0, new BigDecimal("60.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void postBatch_stripedAccountGetsDeltaAndItsSlot() {
+        Account customer = account(1, "Customer");
+        Account revenue = account(2, "Revenue");
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(customer, revenue));
+        when(accountBalanceService.isStriped(customer)).thenReturn(false);
+        when(accountBalanceService.isStriped(revenue)).thenReturn(true);
+        when(accountBalanceService.addDelta(2, new BigDecimal("-100.00"))).thenReturn(5);
+
+        ledgerService.post("VOU-2", DAY, "Sale", 1, 2, new BigDecimal("100.00"), "SALE", 10L, null);
+
+        verify(accountRepository).save(customer);
+        verify(accountRepository, never()).save(revenue);
+        assertThat(revenue.getCurrentBalance()).isEqualByComparingTo("0");
+        verify(accountPeriodBalanceRepository).addMovement(2, PERIOD, 5, BigDecimal.ZERO, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void postBatch_rejectsUnbalancedVoucherBeforeWriting() {
+        Voucher unbalanced = new Voucher("JV-1", DAY, "Split", List.of(
+                Line.debit(1, new BigDecimal("100.00")),
+                Line.credit(2, new BigDecimal("90.00"))), null, null, null);
+
+        assertThatThrownBy(() -> ledgerService.postBatch(List.of(unbalanced)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("does not balance");
+        verifyNoInteractions(ledgerEntryRepository, accountRepository, accountPeriodBalanceRepository);
+    }
+
+    @Test
+    void getLedgerReport_cursorPageFetchesOneExtraRowToDecideNextCursor() {
+        stubReportSummary(7, 25L);
+        KeysetCursor after = new KeysetCursor(DAY, 10);
+        when(ledgerEntryRepository.findReportPageAfter(eq(7), eq(PERIOD), eq(DAY), eq(DAY), eq(10), any()))
+                .thenAnswer(inv -> {
+                    assertThat(inv.getArgument(5, Pageable.class).getPageSize()).isEqualTo(3);
+                    return List.of(entry(11), entry(12), entry(13));
+                });
+
+        LedgerReportDto report = ledgerService.getLedgerReport(7, PERIOD, DAY, 0, 2, after.encode());
+
+        assertThat(report.getEntries()).extracting("ledgerEntryId").containsExactly(11, 12);
+        assertThat(report.getNextCursor()).isEqualTo(new KeysetCursor(DAY, 12).encode());
+        assertThat(report.getNumber()).isNull();
+    }
+
+    @Test
+    void getLedgerReport_lastCursorPageOfExactlySizeHasNoNextCursor() {
+        stubReportSummary(7, 12L);
+        when(ledgerEntryRepository.findReportPageAfter(eq(7), eq(PERIOD), eq(DAY), eq(DAY), eq(10), any()))
+                .thenReturn(List.of(entry(11), entry(12)));
+
+        LedgerReportDto report = ledgerService.getLedgerReport(7, PERIOD, DAY, 0, 2, new KeysetCursor(DAY, 10).encode());
+
+        assertThat(report.getEntries()).hasSize(2);
+        assertThat(report.getNextCursor()).isNull();
+        assertThat(report.getNumber()).isNull();
+    }
+
+    @Test
+    void getLedgerReport_lastOffsetPageHasNoNextCursor() {
+        stubReportSummary(7, 4L);
+        when(ledgerEntryRepository.findReportPage(eq(7), eq(PERIOD), eq(DAY), any()))
+                .thenReturn(List.of(entry(3), entry(4)));
+
+        LedgerReportDto report = ledgerService.getLedgerReport(7, PERIOD, DAY, 1, 2, null);
+
+        assertThat(report.getNumber()).isEqualTo(1);
+        assertThat(report.getTotalPages()).isEqualTo(2);
+        assertThat(report.getNextCursor()).isNull();
+    }
+
+    private void stubReportSummary(int accountId, long entryCount) {
+        Account account = account(accountId, "Customer");
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
+        when(ledgerEntryRepository.openingBalanceBefore(accountId, PERIOD)).thenReturn(BigDecimal.ZERO);
+        when(ledgerEntryRepository.periodTotals(accountId, PERIOD, DAY))
+                .thenReturn(new Object[]{BigDecimal.ZERO, BigDecimal.ZERO, entryCount});
+        when(accountBalanceService.currentBalances(anyCollection())).thenReturn(Map.of());
+        lenient().when(ledgerEntryRepository.balanceBeforeEntry(eq(accountId), any(), anyInt())).thenReturn(BigDecimal.ZERO);
+    }
+
+    private static LedgerEntry entry(int id) {
+        return LedgerEntry.builder()
+                .ledgerEntryId(id)
+                .voucherNo("VOU-" + id)
+                .transactionDate(DAY)
+                .debitAmount(BigDecimal.ONE)
+                .creditAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static Account account(int id, String type) {
+        return Account.builder()
+                .accountId(id)
+                .accountType(type)
+                .currentBalance(BigDecimal.ZERO)
+                .isActive(true)
+                .build();
+    }
+}
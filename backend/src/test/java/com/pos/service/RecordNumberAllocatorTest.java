@@ -0,0 +1,101 @@
+package com.pos.service;
+
+import com.pos.domain.RecordNumberNode;
+import com.pos.repository.RecordNumberNodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecordNumberAllocatorTest {
+
+    @Mock
+    private RecordNumberNodeRepository nodeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(nodeRepository.findById(anyInt())).thenReturn(Optional.empty());
+        lenient().when(nodeRepository.findForUpdate(anyInt())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void next_isStrictlyIncreasingAndKeepsPrefix() {
+        RecordNumberAllocator allocator = new RecordNumberAllocator(nodeRepository, transactionManager, 3);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            numbers.add(allocator.next("ST-OUT"));
+        }
+
+        assertThat(numbers).allMatch(n -> n.startsWith("ST-OUT-") && n.length() == "ST-OUT-".length() + 13);
+        List<String> sorted = new ArrayList<>(numbers);
+        Collections.sort(sorted);
+        assertThat(sorted).containsExactlyElementsOf(numbers);
+        assertThat(Set.copyOf(numbers)).hasSize(numbers.size());
+    }
+
+    @Test
+    void next_isUniqueAcrossThreads() throws Exception {
+        RecordNumberAllocator allocator = new RecordNumberAllocator(nodeRepository, transactionManager, 0);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        seen.add(allocator.next("ST-IN"));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(seen).hasSize(40_000);
+    }
+
+    @Test
+    void next_resumesAbovePersistedHighWaterMark() {
+        long farFuture = 10L * 365 * 24 * 3600 * 1000;
+        when(nodeRepository.findById(anyInt())).thenReturn(Optional.of(
+                RecordNumberNode.builder().nodeId(1).highWaterMs(farFuture).build()));
+        RecordNumberAllocator allocator = new RecordNumberAllocator(nodeRepository, transactionManager, 1);
+
+        String id = allocator.next("ST-IN").substring("ST-IN-".length());
+        long timestamp = Long.parseLong(id, 36) >>> 22;
+
+        assertThat(timestamp).isGreaterThanOrEqualTo(farFuture);
+    }
+
+    @Test
+    void constructor_rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new RecordNumberAllocator(nodeRepository, transactionManager, 1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,298 @@
+package com.pos.service;
+
+import com.pos.domain.Account;
+import com.pos.domain.Customer;
+import com.pos.domain.Product;
+import com.pos.domain.SalesInvoice;
+import com.pos.domain.TransactionType;
+import com.pos.domain.User;
+import com.pos.dto.BatchInvoiceResponse;
+import com.pos.dto.CreateInvoiceItemRequest;
+import com.pos.dto.CreateInvoiceRequest;
+import com.pos.dto.InvoiceResponse;
+import com.pos.exception.BadRequestException;
+import com.pos.repository.CustomerRepository;
+import com.pos.repository.ProductRepository;
+import com.pos.repository.SalesInvoiceItemRepository;
+import com.pos.repository.SalesInvoiceRepository;
+import com.pos.repository.StockTransactionRepository;
+import com.pos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SalesInvoiceServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+    private static final int REVENUE_ACCOUNT = 2;
+    private static final int CASH_ACCOUNT = 3;
+
+    @Mock
+    private SalesInvoiceRepository salesInvoiceRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private StockTransactionRepository stockTransactionRepository;
+
+    @Mock
+    private SalesInvoiceItemRepository salesInvoiceItemRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private LedgerOutboxService ledgerOutboxService;
+
+    @Mock
+    private ProductLockService productLockService;
+
+    @Mock
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Mock
+    private RecordNumberAllocator recordNumberAllocator;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private DashboardResultCache dashboardResultCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SalesInvoiceService salesInvoiceService;
+
+    private final Product soap = product(1, "P1", "5");
+    private final Product rice = product(2, "P2", "10");
+    private final Customer customer = Customer.builder()
+            .customerId(7)
+            .name("Ali Traders")
+            .account(Account.builder().accountId(50).isActive(true).build())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().userId(1).username("cashier").build();
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(userRepository.findByUsernameAndDeletedAtIsNull("cashier")).thenReturn(Optional.of(user));
+        lenient().when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        lenient().when(referenceDataCache.transactionType("SALE"))
+                .thenReturn(Optional.of(TransactionType.builder().typeCode("SALE").build()));
+        lenient().when(referenceDataCache.transactionType("STOCK_OUT"))
+                .thenReturn(Optional.of(TransactionType.builder().typeCode("STOCK_OUT").build()));
+        lenient().when(referenceDataCache.accountIdByType("Revenue")).thenReturn(Optional.of(REVENUE_ACCOUNT));
+        lenient().when(referenceDataCache.accountIdByType("Cash")).thenReturn(Optional.of(CASH_ACCOUNT));
+        lenient().when(referenceDataCache.branch(any())).thenReturn(Optional.empty());
+        lenient().when(referenceDataCache.deliveryMode(any())).thenReturn(Optional.empty());
+        AtomicInteger ids = new AtomicInteger(100);
+        lenient().when(salesInvoiceRepository.saveAndFlush(any(SalesInvoice.class))).thenAnswer(inv -> {
+            SalesInvoice invoice = inv.getArgument(0);
+            invoice.setSalesInvoiceId(ids.incrementAndGet());
+            return invoice;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createInvoices_skipsRejectedInvoicesAndChecksStockAcrossTheBatch() {
+        when(productLockService.lockExisting(any())).thenReturn(Map.of(1, soap, 2, rice));
+        when(invoiceNumberAllocator.next(null, DAY))
+                .thenReturn("INV-20260226-0001", "INV-20260226-0002", "INV-20260226-0003", "INV-20260226-0004");
+
+        BatchInvoiceResponse response = salesInvoiceService.createInvoices(List.of(
+                sale(null, item(1, "3")),
+                sale("INV-20260226-0100", item(2, "4")),
+                sale("INV-20260226-0100", item(2, "1")),
+                sale(null, item(99, "1")),
+                sale(null, item(1, "3")),
+                sale(null, item(1, "2"))), "cashier");
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(3);
+        List<BatchInvoiceResponse.Result> results = response.getResults();
+        assertThat(results).extracting(BatchInvoiceResponse.Result::isSuccess)
+                .containsExactly(true, true, false, false, false, true);
+        assertThat(results).extracting(BatchInvoiceResponse.Result::getInvoiceNumber)
+                .containsExactly("INV-20260226-0001", "INV-20260226-0100", "INV-20260226-0100", null, null, "INV-20260226-0004");
+        assertThat(results.get(2).getError()).contains("already exists");
+        assertThat(results.get(3).getError()).contains("Product");
+        assertThat(results.get(4).getError()).contains("Insufficient stock for product P1. Available: 2");
+
+        // Stock changes once per product, by the total of the accepted invoices
+        assertThat(soap.getCurrentStock()).isEqualByComparingTo("0");
+        assertThat(rice.getCurrentStock()).isEqualByComparingTo("6");
+        verify(productRepository, times(1)).save(soap);
+        verify(productRepository, times(1)).save(rice);
+        verify(salesInvoiceRepository, times(3)).saveAndFlush(any(SalesInvoice.class));
+
+        ArgumentCaptor<List<LedgerService.Voucher>> vouchers = ArgumentCaptor.forClass(List.class);
+        verify(ledgerOutboxService, times(1)).enqueue(vouchers.capture());
+        assertThat(vouchers.getValue()).extracting(LedgerService.Voucher::voucherNo)
+                .containsExactly("VOU-20260226-0001", "VOU-20260226-0100", "VOU-20260226-0004");
+    }
+
+    @Test
+    void createInvoices_allocatedNumberSkipsNumberSuppliedEarlierInBatch() {
+        when(productLockService.lockExisting(any())).thenReturn(Map.of(2, rice));
+        when(invoiceNumberAllocator.next(null, DAY)).thenReturn("INV-20260226-0001");
+        when(invoiceNumberAllocator.nextReserved(null, DAY)).thenReturn("INV-20260226-0002");
+
+        BatchInvoiceResponse response = salesInvoiceService.createInvoices(List.of(
+                sale("INV-20260226-0001", item(2, "1")),
+                sale(null, item(2, "1"))), "cashier");
+
+        assertThat(response.getResults()).extracting(BatchInvoiceResponse.Result::getInvoiceNumber)
+                .containsExactly("INV-20260226-0001", "INV-20260226-0002");
+        assertThat(response.getFailed()).isZero();
+    }
+
+    @Test
+    void createInvoices_rejectsInvoiceWhoseNumberIsTakenWhenNoneIsLeftInMemory() {
+        when(productLockService.lockExisting(any())).thenReturn(Map.of(2, rice));
+        when(invoiceNumberAllocator.next(null, DAY)).thenReturn("INV-20260226-0001");
+        when(invoiceNumberAllocator.nextReserved(null, DAY)).thenReturn(null);
+
+        BatchInvoiceResponse response = salesInvoiceService.createInvoices(List.of(
+                sale("INV-20260226-0001", item(2, "1")),
+                sale(null, item(2, "1"))), "cashier");
+
+        assertThat(response.getResults()).extracting(BatchInvoiceResponse.Result::isSuccess)
+                .containsExactly(true, false);
+        assertThat(response.getResults().get(1).getError()).contains("already taken");
+        assertThat(rice.getCurrentStock()).isEqualByComparingTo("9");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createInvoices_rejectsOnlyTheInvoiceWhoseCustomerAccountIsInactive() {
+        Customer closed = Customer.builder()
+                .customerId(8)
+                .name("Closed Account")
+                .account(Account.builder().accountId(51).isActive(false).build())
+                .build();
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer, closed));
+        when(productLockService.lockExisting(any())).thenReturn(Map.of(2, rice));
+        when(invoiceNumberAllocator.next(null, DAY)).thenReturn("INV-20260226-0001", "INV-20260226-0002", "INV-20260226-0003");
+        CreateInvoiceRequest toClosed = sale(null, item(2, "1"));
+        toClosed.setCustomerId(8);
+
+        BatchInvoiceResponse response = salesInvoiceService.createInvoices(List.of(
+                sale(null, item(2, "1")), toClosed, sale(null, item(2, "1"))), "cashier");
+
+        assertThat(response.getResults()).extracting(BatchInvoiceResponse.Result::isSuccess)
+                .containsExactly(true, false, true);
+        assertThat(response.getResults().get(1).getError()).contains("inactive");
+        assertThat(rice.getCurrentStock()).isEqualByComparingTo("8");
+        ArgumentCaptor<List<LedgerService.Voucher>> vouchers = ArgumentCaptor.forClass(List.class);
+        verify(ledgerOutboxService).enqueue(vouchers.capture());
+        assertThat(vouchers.getValue()).extracting(LedgerService.Voucher::voucherNo)
+                .containsExactly("VOU-20260226-0001", "VOU-20260226-0003");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createInvoice_savesInvoiceMovesStockAndQueuesSaleAndPayment() {
+        when(productLockService.lockForUpdate(anyList())).thenReturn(Map.of(1, soap));
+        when(invoiceNumberAllocator.next(null, DAY)).thenReturn("INV-20260226-0001");
+        CreateInvoiceRequest request = sale(null, item(1, "2"));
+        request.setAmountReceived(new BigDecimal("100.00"));
+
+        InvoiceResponse response = salesInvoiceService.createInvoice(request, "cashier");
+
+        // The number is allocated before the checkout transaction opens
+        InOrder order = inOrder(invoiceNumberAllocator, transactionTemplate);
+        order.verify(invoiceNumberAllocator).next(null, DAY);
+        order.verify(transactionTemplate).execute(any());
+        assertThat(response.getInvoiceNumber()).isEqualTo("INV-20260226-0001");
+        assertThat(response.getNetTotal()).isEqualByComparingTo("100.00");
+        assertThat(soap.getCurrentStock()).isEqualByComparingTo("3");
+        verify(productRepository, times(1)).save(soap);
+        verify(stockTransactionRepository).save(any());
+        ArgumentCaptor<List<LedgerService.Voucher>> vouchers = ArgumentCaptor.forClass(List.class);
+        verify(ledgerOutboxService).enqueue(vouchers.capture());
+        assertThat(vouchers.getValue()).containsExactly(
+                LedgerService.Voucher.pair("VOU-20260226-0001", DAY, "Sale, Invoice # INV-20260226-0001",
+                        50, REVENUE_ACCOUNT, new BigDecimal("100.00"), "SALE", 101L, 1),
+                LedgerService.Voucher.pair("PAY-20260226-0001", DAY, "Payment, Invoice # INV-20260226-0001",
+                        CASH_ACCOUNT, 50, new BigDecimal("100.00"), "PAYMENT", 101L, 1));
+    }
+
+    @Test
+    void createInvoice_insufficientStockFailsWithoutWriting() {
+        when(productLockService.lockForUpdate(anyList())).thenReturn(Map.of(1, soap));
+
+        assertThatThrownBy(() -> salesInvoiceService.createInvoice(sale(null, item(1, "6")), "cashier"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Insufficient stock");
+        assertThat(soap.getCurrentStock()).isEqualByComparingTo("5");
+        verify(invoiceNumberAllocator, never()).nextReserved(any(), any());
+        verify(salesInvoiceRepository, never()).saveAndFlush(any(SalesInvoice.class));
+        verify(productRepository, never()).save(any());
+    }
+
+    private static CreateInvoiceRequest sale(String invoiceNumber, CreateInvoiceItemRequest... items) {
+        CreateInvoiceRequest request = new CreateInvoiceRequest();
+        request.setInvoiceNumber(invoiceNumber);
+        request.setCustomerId(7);
+        request.setInvoiceDate(DAY);
+        request.setItems(new ArrayList<>(List.of(items)));
+        return request;
+    }
+
+    private static CreateInvoiceItemRequest item(int productId, String quantity) {
+        CreateInvoiceItemRequest item = new CreateInvoiceItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(new BigDecimal(quantity));
+        item.setUnitPrice(new BigDecimal("50.00"));
+        return item;
+    }
+
+    private static Product product(int id, String code, String stock) {
+        return Product.builder()
+                .productId(id)
+                .code(code)
+                .currentStock(new BigDecimal(stock))
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.pos.service;
+
+import com.pos.domain.Branch;
+import com.pos.domain.Customer;
+import com.pos.domain.Product;
+import com.pos.domain.SalesInvoice;
+import com.pos.domain.SalesInvoiceItem;
+import com.pos.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private DashboardResultCache dashboardResultCache;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @Test
+    void recordCreated_addsInvoiceAndProductTotals() {
+        SalesInvoice inv = invoice(11, DAY, true);
+        addItem(inv, 5, "2", "200.00");
+        inv.setNetTotal(new BigDecimal("200.00"));
+
+        salesRollupService.recordCreated(inv);
+
+        verify(salesRollupRepository).addSales(DAY, 3, 11 % SalesRollupService.SLOTS,
+                new BigDecimal("200.00"), 1, new BigDecimal("200.00"), BigDecimal.ZERO);
+        verify(salesRollupRepository).addProductSales(DAY, 3, 5, new BigDecimal("2"), new BigDecimal("200.00"));
+    }
+
+    @Test
+    void recordChanged_writesOnlyTheDifference() {
+        SalesInvoice inv = invoice(12, DAY, false);
+        addItem(inv, 5, "2", "200.00");
+        addItem(inv, 6, "1", "50.00");
+        inv.setNetTotal(new BigDecimal("250.00"));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
+
+        inv.getItems().get(1).setQuantity(new BigDecimal("3"));
+        inv.getItems().get(1).setLineTotal(new BigDecimal("150.00"));
+        inv.setNetTotal(new BigDecimal("350.00"));
+        salesRollupService.recordChanged(before, inv);
+
+        verify(salesRollupRepository).addSales(eq(DAY), eq(3), eq(12 % SalesRollupService.SLOTS),
+                eq(new BigDecimal("100.00")), eq(0), eq(BigDecimal.ZERO), eq(new BigDecimal("100.00")));
+        verify(salesRollupRepository).addProductSales(DAY, 3, 6, new BigDecimal("2"), new BigDecimal("100.00"));
+        verify(salesRollupRepository, never()).addProductSales(any(), anyInt(), eq(5), any(), any());
+        verifyNoMoreInteractions(salesRollupRepository);
+    }
+
+    @Test
+    void recordChanged_movesInvoiceToNewDate() {
+        SalesInvoice inv = invoice(13, DAY, true);
+        addItem(inv, 5, "1", "100.00");
+        inv.setNetTotal(new BigDecimal("100.00"));
+        SalesRollupService.Contribution before = salesRollupService.capture(inv);
+
+        LocalDate nextDay = DAY.plusDays(1);
+        inv.setInvoiceDate(nextDay);
+        salesRollupService.recordChanged(before, inv);
+
+        int slot = 13 % SalesRollupService.SLOTS;
+        verify(salesRollupRepository).addSales(DAY, 3, slot,
+                new BigDecimal("-100.00"), -1, new BigDecimal("-100.00"), BigDecimal.ZERO);
+        verify(salesRollupRepository).addSales(nextDay, 3, slot,
+                new BigDecimal("100.00"), 1, new BigDecimal("100.00"), BigDecimal.ZERO);
+        verify(salesRollupRepository).addProductSales(DAY, 3, 5, new BigDecimal("-1"), new BigDecimal("-100.00"));
+        verify(salesRollupRepository).addProductSales(nextDay, 3, 5, new BigDecimal("1"), new BigDecimal("100.00"));
+    }
+
+    private static SalesInvoice invoice(int id, LocalDate date, boolean cash) {
+        return SalesInvoice.builder()
+                .salesInvoiceId(id)
+                .invoiceDate(date)
+                .branch(Branch.builder().branchId(3).build())
+                .customer(cash ? null : Customer.builder().customerId(7).build())
+                .isCashCustomer(cash)
+                .build();
+    }
+
+    private static void addItem(SalesInvoice inv, int productId, String qty, String lineTotal) {
+        inv.getItems().add(SalesInvoiceItem.builder()
+                .salesInvoice(inv)
+                .product(Product.builder().productId(productId).build())
+                .quantity(new BigDecimal(qty))
+                .lineTotal(new BigDecimal(lineTotal))
+                .build());
+    }
+}
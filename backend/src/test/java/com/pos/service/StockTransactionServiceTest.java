@@ -0,0 +1,86 @@
+package com.pos.service;
+
+import com.pos.domain.Product;
+import com.pos.domain.StockTransaction;
+import com.pos.domain.StockTransactionItem;
+import com.pos.domain.TransactionType;
+import com.pos.dto.StockMovementResponse;
+import com.pos.repository.StockTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockTransactionServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 26);
+
+    @Mock
+    private StockTransactionRepository stockTransactionRepository;
+
+    @InjectMocks
+    private StockTransactionService stockTransactionService;
+
+    @Test
+    void getMovements_pagesIdsThenLoadsRowsInPageOrder() {
+        when(stockTransactionRepository.findIdsByDateRangeAndProduct(eq(DAY), eq(DAY), eq(7), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(List.of(12, 10), inv.getArgument(3), 5));
+        when(stockTransactionRepository.findAllWithDetails(List.of(12, 10)))
+                .thenReturn(List.of(transaction(10, "STOCK_IN"), transaction(12, "STOCK_OUT")));
+
+        Page<StockMovementResponse> page = stockTransactionService.getMovements(DAY, DAY, 7, PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).extracting(StockMovementResponse::getStockTransactionId).containsExactly(12, 10);
+        assertThat(page.getContent().get(0).getItems()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(stockTransactionRepository).findIdsByDateRangeAndProduct(eq(DAY), eq(DAY), eq(7), pageable.capture());
+        assertThat(pageable.getValue().getSort().getOrderFor("transactionDate").getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
+
+    @Test
+    void getMovements_emptyPageSkipsSecondQuery() {
+        when(stockTransactionRepository.findIdsByDateRangeAndProduct(any(), any(), eq(-1), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        Page<StockMovementResponse> page = stockTransactionService.getMovements(null, null, null, PageRequest.of(3, 20));
+
+        assertThat(page.getContent()).isEmpty();
+        verify(stockTransactionRepository, never()).findAllWithDetails(any());
+    }
+
+    private static StockTransaction transaction(int id, String typeCode) {
+        StockTransaction st = StockTransaction.builder()
+                .stockTransactionId(id)
+                .recordNo("REC-" + id)
+                .transactionDate(DAY)
+                .transactionType(TransactionType.builder().typeCode(typeCode).build())
+                .build();
+        st.getItems().add(StockTransactionItem.builder()
+                .stockTransactionItemId(id * 10)
+                .stockTransaction(st)
+                .product(Product.builder().productId(7).code("P7").nameEn("Register").build())
+                .quantityChange(BigDecimal.ONE)
+                .build());
+        return st;
+    }
+}
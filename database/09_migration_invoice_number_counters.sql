@@ -0,0 +1,33 @@
+-- =============================================================================
+-- Migration: Invoice number counters
+-- Backs the application's invoice number allocator (INV-YYYYMMDD-NNNN). The app
+-- reserves numbers in blocks from this table instead of scanning sales_invoices.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+-- -----------------------------------------------------------------------------
+-- 1. Counter table: one row per branch per day (branch_id 0 = no branch)
+-- -----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS invoice_number_counters (
+    branch_id     INT  NOT NULL DEFAULT 0,
+    business_date DATE NOT NULL,
+    next_value    INT  NOT NULL DEFAULT 1,
+    updated_at    TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (branch_id, business_date)
+);
+
+COMMENT ON TABLE invoice_number_counters IS 'High-water mark of allocated invoice sequence numbers per branch per day. Values below next_value may be unused (gaps are expected).';
+
+-- -----------------------------------------------------------------------------
+-- 2. Seed from existing invoices so numbering continues after the current max.
+--    (The app also seeds a missing day lazily; this just avoids the first scan.)
+-- -----------------------------------------------------------------------------
+INSERT INTO invoice_number_counters (branch_id, business_date, next_value, updated_at)
+SELECT 0,
+       TO_DATE(SUBSTRING(invoice_number FROM 5 FOR 8), 'YYYYMMDD'),
+       MAX(CAST(SUBSTRING(invoice_number FROM 14) AS INTEGER)) + 1,
+       CURRENT_TIMESTAMP
+FROM sales_invoices
+WHERE invoice_number ~ '^INV-[0-9]{8}-[0-9]+$'
+GROUP BY TO_DATE(SUBSTRING(invoice_number FROM 5 FOR 8), 'YYYYMMDD')
+ON CONFLICT (branch_id, business_date) DO NOTHING;
@@ -0,0 +1,15 @@
+-- =============================================================================
+-- Migration: Record number allocator high-water marks
+-- Stock transaction record numbers (ST-IN-/ST-OUT-...) are generated in memory
+-- from time + node id + counter. Each backend node only persists a timestamp
+-- high-water mark here so it never reissues a number after a restart.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS record_number_nodes (
+    node_id       INT PRIMARY KEY,
+    high_water_ms BIGINT NOT NULL DEFAULT 0,
+    updated_at    TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE record_number_nodes IS 'Per backend node (RECORD_NUMBER_NODE_ID): milliseconds since 2024-01-01 below which record numbers may already have been issued.';
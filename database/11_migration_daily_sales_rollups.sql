@@ -0,0 +1,70 @@
+-- =============================================================================
+-- Migration: Daily sales rollups
+-- Pre-aggregated sales per day per branch and per day per branch per product.
+-- The application keeps them current on every invoice write/edit; the dashboard
+-- reads them instead of scanning sales_invoices / sales_invoice_items.
+-- Idempotent; safe to run multiple times (the backfill rebuilds both tables).
+-- =============================================================================
+
+-- -----------------------------------------------------------------------------
+-- 1. Per-branch daily totals (branch_id 0 = no branch).
+--    Each day/branch is split over a few slots (invoice id modulo slot count) so
+--    concurrent checkouts do not all update the same row; readers SUM over slots.
+-- -----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS daily_sales_rollups (
+    business_date DATE          NOT NULL,
+    branch_id     INT           NOT NULL DEFAULT 0,
+    slot          SMALLINT      NOT NULL DEFAULT 0,
+    net_total     NUMERIC(18,2) NOT NULL DEFAULT 0,
+    invoice_count INT           NOT NULL DEFAULT 0,
+    cash_total    NUMERIC(18,2) NOT NULL DEFAULT 0,
+    credit_total  NUMERIC(18,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (business_date, branch_id, slot)
+);
+
+COMMENT ON TABLE daily_sales_rollups IS 'Sales per day per branch, split over slots to spread concurrent updates. cash_total = cash-customer invoices, credit_total = named credit customers.';
+
+-- -----------------------------------------------------------------------------
+-- 2. Per-product daily totals (cost is joined from products at read time)
+-- -----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS daily_product_sales_rollups (
+    business_date DATE          NOT NULL,
+    branch_id     INT           NOT NULL DEFAULT 0,
+    product_id    INT           NOT NULL REFERENCES products(product_id),
+    quantity      NUMERIC(18,4) NOT NULL DEFAULT 0,
+    revenue       NUMERIC(18,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (business_date, branch_id, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_daily_product_sales_rollups_product ON daily_product_sales_rollups(product_id);
+
+-- -----------------------------------------------------------------------------
+-- 3. Backfill from existing invoices (also use this to rebuild after manual edits)
+-- -----------------------------------------------------------------------------
+BEGIN;
+
+DELETE FROM daily_sales_rollups;
+DELETE FROM daily_product_sales_rollups;
+
+INSERT INTO daily_sales_rollups (business_date, branch_id, slot, net_total, invoice_count, cash_total, credit_total)
+SELECT si.invoice_date,
+       COALESCE(si.branch_id, 0),
+       0,
+       SUM(si.net_total),
+       COUNT(*),
+       SUM(CASE WHEN si.is_cash_customer = true THEN si.net_total ELSE 0 END),
+       SUM(CASE WHEN si.is_cash_customer = false AND si.customer_id IS NOT NULL THEN si.net_total ELSE 0 END)
+FROM sales_invoices si
+GROUP BY si.invoice_date, COALESCE(si.branch_id, 0);
+
+INSERT INTO daily_product_sales_rollups (business_date, branch_id, product_id, quantity, revenue)
+SELECT si.invoice_date,
+       COALESCE(si.branch_id, 0),
+       sii.product_id,
+       SUM(sii.quantity),
+       SUM(sii.line_total)
+FROM sales_invoice_items sii
+JOIN sales_invoices si ON si.sales_invoice_id = sii.sales_invoice_id
+GROUP BY si.invoice_date, COALESCE(si.branch_id, 0), sii.product_id;
+
+COMMIT;
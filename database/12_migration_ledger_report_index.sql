@@ -0,0 +1,10 @@
+-- =============================================================================
+-- Migration: Ledger report index
+-- The ledger report pages and streams one account's entries in
+-- (transaction_date, ledger_entry_id) order and seeks to "entries after (date, id)".
+-- This index serves both without a sort.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_date_id
+    ON ledger_entries (account_id, transaction_date, ledger_entry_id);
@@ -0,0 +1,38 @@
+-- =============================================================================
+-- Migration: Account period balances
+-- Monthly debit/credit totals per account, kept current by the application on
+-- every ledger posting. Opening balances and the trial balance as of a date add
+-- the months before that date's month to the entries of that month only, instead
+-- of summing every ledger entry since the beginning.
+-- Idempotent; safe to run multiple times (the backfill rebuilds the table).
+-- =============================================================================
+
+-- -----------------------------------------------------------------------------
+-- 1. One row per account per month (period_start = first day of the month)
+-- -----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS account_period_balances (
+    account_id   INT           NOT NULL REFERENCES accounts(account_id),
+    period_start DATE          NOT NULL,
+    debit_total  NUMERIC(18,2) NOT NULL DEFAULT 0,
+    credit_total NUMERIC(18,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, period_start)
+);
+
+COMMENT ON TABLE account_period_balances IS 'Sum of ledger_entries debit/credit per account per calendar month. Must equal ledger_entries; rebuild with section 2 after deleting or editing entries in SQL.';
+
+-- -----------------------------------------------------------------------------
+-- 2. Backfill / rebuild from ledger_entries
+-- -----------------------------------------------------------------------------
+BEGIN;
+
+DELETE FROM account_period_balances;
+
+INSERT INTO account_period_balances (account_id, period_start, debit_total, credit_total)
+SELECT le.account_id,
+       CAST(DATE_TRUNC('month', le.transaction_date) AS DATE),
+       SUM(le.debit_amount),
+       SUM(le.credit_amount)
+FROM ledger_entries le
+GROUP BY le.account_id, CAST(DATE_TRUNC('month', le.transaction_date) AS DATE);
+
+COMMIT;
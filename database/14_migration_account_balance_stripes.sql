@@ -0,0 +1,38 @@
+-- =============================================================================
+-- Migration: Striped balances for shared accounts
+-- Postings to shared, busy accounts (by default Revenue and Cash) no longer
+-- update accounts.current_balance directly. Each posting adds its amount to one
+-- of a few stripe rows, and the backend periodically folds the stripes into
+-- accounts.current_balance. Balance = current_balance + SUM(stripes), exact at
+-- all times.
+-- The monthly totals in account_period_balances get the same slot split.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+-- -----------------------------------------------------------------------------
+-- 1. Unfolded balance deltas (debit positive, credit negative) per account per slot
+-- -----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS account_balance_stripes (
+    account_id INT           NOT NULL REFERENCES accounts(account_id),
+    slot       SMALLINT      NOT NULL,
+    delta      NUMERIC(18,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, slot)
+);
+
+COMMENT ON TABLE account_balance_stripes IS 'Balance changes not yet folded into accounts.current_balance. Real balance = current_balance + SUM(delta).';
+
+-- -----------------------------------------------------------------------------
+-- 2. Slot column on monthly totals (readers already SUM per account/month)
+-- -----------------------------------------------------------------------------
+ALTER TABLE account_period_balances ADD COLUMN IF NOT EXISTS slot SMALLINT NOT NULL DEFAULT 0;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.key_column_usage
+        WHERE table_name = 'account_period_balances' AND constraint_name = 'account_period_balances_pkey' AND column_name = 'slot'
+    ) THEN
+        ALTER TABLE account_period_balances DROP CONSTRAINT account_period_balances_pkey;
+        ALTER TABLE account_period_balances ADD PRIMARY KEY (account_id, period_start, slot);
+    END IF;
+END $$;
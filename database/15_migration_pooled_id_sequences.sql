@@ -0,0 +1,17 @@
+-- =============================================================================
+-- Migration: Pooled id sequences for line-item tables
+-- sales_invoice_items, stock_transaction_items and purchase_order_items
+-- get their ids from their SERIAL sequences in blocks of 50:
+-- the backend reserves a block with one nextval() and numbers new rows itself,
+-- so Hibernate can send the INSERTs as JDBC batches instead of one by one.
+-- The column defaults are unchanged; rows inserted directly in SQL still get an
+-- id, they just use up a whole block (ids have gaps; nothing relies on them
+-- being dense).
+-- Must match allocationSize = 50 on the entities. ledger_entries is not
+-- included: its rows are inserted by plain JDBC using the column default,
+-- which would use up 50 ids per row. Idempotent.
+-- =============================================================================
+
+ALTER SEQUENCE sales_invoice_items_sales_invoice_item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE stock_transaction_items_stock_transaction_item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE purchase_order_items_purchase_order_item_id_seq INCREMENT BY 50;
@@ -0,0 +1,27 @@
+-- =============================================================================
+-- Migration: Ledger outbox
+-- Checkout records the sale/payment vouchers here, in the invoice transaction,
+-- instead of posting them to the ledger. A background worker in the backend
+-- posts pending rows in batches and deletes them in the same transaction; a
+-- voucher number already present in ledger_entries is never posted twice.
+-- Rows that keep failing stay here with attempts/last_error for inspection.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS ledger_outbox (
+    outbox_id         BIGSERIAL PRIMARY KEY,
+    voucher_no        VARCHAR(50)   NOT NULL UNIQUE,
+    transaction_date  DATE          NOT NULL,
+    description       VARCHAR(500),
+    debit_account_id  INT           NOT NULL REFERENCES accounts(account_id),
+    credit_account_id INT           NOT NULL REFERENCES accounts(account_id),
+    amount            NUMERIC(18,2) NOT NULL,
+    ref_type          VARCHAR(50),
+    ref_id            BIGINT,
+    created_by        INT REFERENCES users(user_id),
+    created_at        TIMESTAMPTZ   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts          INT           NOT NULL DEFAULT 0,
+    last_error        VARCHAR(1000)
+);
+
+COMMENT ON TABLE ledger_outbox IS 'Vouchers waiting to be posted to ledger_entries by the backend. Normally empty within seconds; rows with attempts > 0 failed to post (see last_error).';
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- Migration: Keyset listing indexes
+-- The /scroll listings of invoices, ledger entries and stock movements page by
+-- "rows after (date, id)" instead of OFFSET. These indexes match that order so
+-- every page is an index range scan, however deep the client has scrolled.
+-- Idempotent; safe to run multiple times.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_sales_invoices_date_id
+    ON sales_invoices (invoice_date, sales_invoice_id);
+
+CREATE INDEX IF NOT EXISTS idx_sales_invoices_customer_date_id
+    ON sales_invoices (customer_id, invoice_date, sales_invoice_id);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_date_id
+    ON ledger_entries (transaction_date, ledger_entry_id);
+
+CREATE INDEX IF NOT EXISTS idx_stock_transactions_date_id
+    ON stock_transactions (transaction_date, stock_transaction_id);
@@ -8,11 +8,15 @@
 BEGIN;
 
 -- -----------------------------------------------------------------------------
--- 1. Delete ledger entries for sales and payments (so ledger matches no invoices)
+-- 1. Delete ledger entries for sales and payments (so ledger matches no invoices),
+--    including any still waiting in the outbox (16_migration_ledger_outbox.sql)
 -- -----------------------------------------------------------------------------
 DELETE FROM ledger_entries
 WHERE ref_type IN ('SALE', 'PAYMENT');
 
+DELETE FROM ledger_outbox
+WHERE ref_type IN ('SALE', 'PAYMENT');
+
 -- -----------------------------------------------------------------------------
 -- 2. Unlink stock transactions from sales invoices (required before deleting invoices)
 -- -----------------------------------------------------------------------------
@@ -25,6 +29,22 @@ WHERE ref_sales_invoice_id IS NOT NULL;
 -- -----------------------------------------------------------------------------
 DELETE FROM sales_invoices;
 
+-- -----------------------------------------------------------------------------
+-- 4. Clear the dashboard's daily sales rollups (11_migration_daily_sales_rollups.sql)
+-- -----------------------------------------------------------------------------
+DELETE FROM daily_sales_rollups;
+DELETE FROM daily_product_sales_rollups;
+
+-- -----------------------------------------------------------------------------
+-- 5. Rebuild monthly account totals from the remaining ledger entries
+--    (13_migration_account_period_balances.sql)
+-- -----------------------------------------------------------------------------
+DELETE FROM account_period_balances;
+INSERT INTO account_period_balances (account_id, period_start, debit_total, credit_total)
+SELECT account_id, CAST(DATE_TRUNC('month', transaction_date) AS DATE), SUM(debit_amount), SUM(credit_amount)
+FROM ledger_entries
+GROUP BY account_id, CAST(DATE_TRUNC('month', transaction_date) AS DATE);
+
 -- -----------------------------------------------------------------------------
 -- Optional: Reset denormalized account balances for Customer, Revenue, Cash
 --    so "Prev balance" and ledger reports start from zero. Uncomment if needed.
@@ -32,6 +52,8 @@ DELETE FROM sales_invoices;
 -- UPDATE accounts
 -- SET current_balance = 0, balance_type = NULL
 -- WHERE account_type IN ('Customer', 'Revenue', 'Cash');
+-- DELETE FROM account_balance_stripes
+-- WHERE account_id IN (SELECT account_id FROM accounts WHERE account_type IN ('Customer', 'Revenue', 'Cash'));
 
 COMMIT;
 
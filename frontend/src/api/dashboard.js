@@ -8,6 +8,8 @@ const params = (fromDate, toDate) => {
 };
 
 export const dashboardApi = {
+  summary: (today, fromDate, toDate, limit = 10) =>
+    axiosInstance.get('/v1/dashboard/summary', { params: { today, ...params(fromDate, toDate), limit } }),
   todaySales: (fromDate, toDate) =>
     axiosInstance.get('/v1/dashboard/today-sales', { params: params(fromDate, toDate) }),
   monthToDate: (fromDate, toDate) =>
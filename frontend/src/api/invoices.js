@@ -20,10 +20,14 @@ export const invoicesApi = {
       .catch(() => null);
   },
   getById: (id) => axiosInstance.get(`/v1/invoices/${id}`),
-  getNextNumber: (date) =>
-    axiosInstance.get('/v1/invoices/next-number', { params: date ? { date } : {} }).then((r) => r.data),
+  /** Preview only (nothing is reserved): create invoices without invoiceNumber and show the one in the response. */
+  getNextNumber: (date, branchId) =>
+    axiosInstance
+      .get('/v1/invoices/next-number', { params: { ...(date ? { date } : {}), ...(branchId != null ? { branchId } : {}) } })
+      .then((r) => r.data),
   getByNumber: (number) => axiosInstance.get(`/v1/invoices/number/${encodeURIComponent(number)}`),
-  create: (body) => axiosInstance.post('/v1/invoices', body),
+  create: (body, idempotencyKey) =>
+    axiosInstance.post('/v1/invoices', body, idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined),
   update: (id, body) => axiosInstance.patch(`/v1/invoices/${id}`, body),
   addItem: (id, body) => axiosInstance.post(`/v1/invoices/${id}/items`, body),
   updateItem: (id, itemId, body) => axiosInstance.put(`/v1/invoices/${id}/items/${itemId}`, body),
@@ -94,25 +94,15 @@ export default function Dashboard() {
       const fromStr = toLocalDateStr(new Date(now.getFullYear(), now.getMonth(), 1));
       const toStr = todayStr;
       try {
-        const [todayRes, mtdRes, profitRes, trendRes, bestRes, topRes, alertsRes, cashRes] =
-          await Promise.all([
-            dashboardApi.todaySales(todayStr, todayStr),
-            dashboardApi.monthToDate(fromStr, toStr),
-            dashboardApi.profit(fromStr, toStr),
-            dashboardApi.salesTrend(fromStr, toStr),
-            dashboardApi.bestSellingProducts(fromStr, toStr, 5),
-            dashboardApi.topCustomers(fromStr, toStr, 5),
-            dashboardApi.stockAlerts(),
-            dashboardApi.cashFlow(fromStr, toStr),
-          ]);
-        setToday(todayRes.data);
-        setMtd(mtdRes.data);
-        setProfit(profitRes.data);
-        setTrend(trendRes.data?.data?.map((d) => ({ ...d, date: d.date?.slice(0, 10) })) || []);
-        setBestProducts(bestRes.data || []);
-        setTopCustomers(topRes.data || []);
-        setStockAlerts(alertsRes.data || []);
-        setCashFlow(cashRes.data);
+        const { data } = await dashboardApi.summary(todayStr, fromStr, toStr, 5);
+        setToday(data.todaySales);
+        setMtd(data.monthToDate);
+        setProfit(data.profit);
+        setTrend(data.salesTrend?.data?.map((d) => ({ ...d, date: d.date?.slice(0, 10) })) || []);
+        setBestProducts(data.bestSellingProducts || []);
+        setTopCustomers(data.topCustomers || []);
+        setStockAlerts(data.stockAlerts || []);
+        setCashFlow(data.cashFlow);
       } catch (err) {
         setError(err.response?.data?.message || 'Failed to load dashboard');
       } finally {
@@ -161,11 +161,9 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
   }, []);
 
   const fetchNextNewInvoiceNumber = useCallback(() => {
-    invoicesApi.getNextNumber(billingDate || today).then((next) => setNewInvoiceNumber(next)).catch(() => {
-      const d = (billingDate || today).replace(/-/g, '');
-      setNewInvoiceNumber('INV-' + d + '-' + String(Date.now()).slice(-4));
-    });
-  }, [billingDate]);
+    // Preview only; the number is assigned by the server when the order is created
+    invoicesApi.getNextNumber(today).then((next) => setNewInvoiceNumber(next)).catch(() => setNewInvoiceNumber(''));
+  }, []);
 
   useEffect(() => {
     fetchNextNewInvoiceNumber();
@@ -340,7 +338,6 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
       const amt = paymentOverrides && paymentOverrides.amountReceived != null ? Number(paymentOverrides.amountReceived) : (Number(amountReceived) || 0);
       const ch = paymentOverrides && paymentOverrides.changeReturned != null ? Number(paymentOverrides.changeReturned) : 0;
       return {
-        invoiceNumber: newInvoiceNumber,
         customerId: isCashCustomer ? null : customerIdForCreate,
         isCashCustomer: !!isCashCustomer,
         invoiceDate: today,
@@ -364,7 +361,6 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
     },
     [
       replicationItems,
-      newInvoiceNumber,
       isCashCustomer,
       customerIdForCreate,
       historicalInvoice?.deliveryModeId,
@@ -413,7 +409,7 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
           return invoicesApi
             .create(buildCreateBody(false, { amountReceived: amountReceivedVal, changeReturned: changeReturnedVal }))
             .then((res) => {
-              const msg = `Order created: ${res.data?.invoiceNumber || newInvoiceNumber}`;
+              const msg = `Order created: ${res.data?.invoiceNumber ?? ''}`;
               if (onNotify) onNotify(msg, 'success');
               else setSuccessMsg(msg);
               if (onCreated) onCreated(res.data);
@@ -436,7 +432,7 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
     invoicesApi
       .create(buildCreateBody(false))
       .then((res) => {
-        const msg = `Order created: ${res.data?.invoiceNumber || newInvoiceNumber}`;
+        const msg = `Order created: ${res.data?.invoiceNumber ?? ''}`;
         if (onNotify) onNotify(msg, 'success');
         else setSuccessMsg(msg);
         if (onCreated) onCreated(res.data);
@@ -448,7 +444,7 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
         else setSuccessMsg(msg);
       })
       .finally(() => setCreateLoading(false));
-  }, [replicationItems.length, replicationItems, buildCreateBody, newInvoiceNumber, onCreated, onNotify, onOpenPaymentBeforeCreate, netTotal, grandTotal, additionalDiscount, additionalExpenses, customerPrevBalance, isCashCustomer, amountReceived, printWithoutHeader, printWithoutBalance, byInvoiceNoCustomerMissing]);
+  }, [replicationItems.length, replicationItems, buildCreateBody, onCreated, onNotify, onOpenPaymentBeforeCreate, netTotal, grandTotal, additionalDiscount, additionalExpenses, customerPrevBalance, isCashCustomer, amountReceived, printWithoutHeader, printWithoutBalance, byInvoiceNoCustomerMissing]);
 
   const handleSaveDraft = useCallback(() => {
     if (replicationItems.length === 0) {
@@ -462,7 +458,7 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
     invoicesApi
       .create(buildCreateBody(true))
       .then((res) => {
-        const msg = `Draft saved: ${res.data?.invoiceNumber || newInvoiceNumber}`;
+        const msg = `Draft saved: ${res.data?.invoiceNumber ?? ''}`;
         if (onNotify) onNotify(msg, 'success');
         else setSuccessMsg(msg);
         if (onCreated) onCreated(res.data);
@@ -474,7 +470,7 @@ export default function ByInvoiceNoPage({ onCreated, onEnd, onNotify, onOpenPaym
         else setSuccessMsg(msg);
       })
       .finally(() => setCreateLoading(false));
-  }, [replicationItems.length, buildCreateBody, newInvoiceNumber, onCreated, onNotify]);
+  }, [replicationItems.length, buildCreateBody, onCreated, onNotify]);
 
   const handleSelectCustomer = useCallback((customer) => {
     setSelectedCustomer({ customerId: customer.customerId, name: customer.name || customer.nameEnglish || customer.customerCode || `#${customer.customerId}` });
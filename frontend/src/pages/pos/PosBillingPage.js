@@ -103,7 +103,8 @@ export default function PosBillingPage() {
     invoicesApi.getNextNumber(date).then(function (next) {
       setInvoiceNumber(next);
     }).catch(function () {
-      setInvoiceNumber('INV-' + date.replace(/-/g, '') + '-' + String(Date.now()).slice(-4));
+      // Only a preview; the server assigns the real number on save
+      setInvoiceNumber('');
     });
   }, [invoiceDate]);
 
@@ -380,7 +381,6 @@ export default function PosBillingPage() {
     }
     setLoading(true);
     const body = {
-      invoiceNumber,
       customerId: effectiveCustomerId != null ? Number(effectiveCustomerId) : null,
       invoiceDate,
       invoiceTime: invoiceTime ? (invoiceTime.length === 5 ? invoiceTime + ':00' : invoiceTime) : null,
@@ -403,7 +403,7 @@ export default function PosBillingPage() {
     };
     invoicesApi.create(body).then(function (res) {
       clearScreen();
-      showNotification('Draft saved.', 'success');
+      showNotification('Draft saved' + (res && res.data && res.data.invoiceNumber ? ': ' + res.data.invoiceNumber : '.'), 'success');
       if (tab === 1) loadHistory();
     }).catch(function (err) {
       showNotification((err.response && err.response.data && err.response.data.message) || 'Failed to save draft', 'error');
@@ -418,7 +418,6 @@ export default function PosBillingPage() {
     }
     setLoading(true);
     const body = {
-      invoiceNumber,
       customerId: effectiveCustomerId != null ? Number(effectiveCustomerId) : null,
       invoiceDate,
       invoiceTime: invoiceTime ? (invoiceTime.length === 5 ? invoiceTime + ':00' : invoiceTime) : null,
@@ -448,7 +447,7 @@ export default function PosBillingPage() {
       setPaymentOpen(false);
       setFocusedRowIndex(-1);
       fetchNextInvoiceNumber();
-      showNotification('Invoice saved.', 'success');
+      showNotification('Invoice saved' + (res && res.data && res.data.invoiceNumber ? ': ' + res.data.invoiceNumber : '.'), 'success');
       if (tab === 1) loadHistory();
       if (printReceiptAfterSave && res && res.data) {
         var savedInv = res.data;